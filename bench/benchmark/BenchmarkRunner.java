@@ -0,0 +1,107 @@
+package benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Минимальный харнесс для микробенчмарков: прогрев, несколько измерительных итераций,
+ * среднее время операции и экспорт результатов в JSON для сравнения между релизами.
+ */
+public class BenchmarkRunner {
+    private final int warmupIterations;
+    private final int measureIterations;
+    private final List<Result> results = new ArrayList<>();
+
+    public BenchmarkRunner(int warmupIterations, int measureIterations) {
+        this.warmupIterations = warmupIterations;
+        this.measureIterations = measureIterations;
+    }
+
+    public static BenchmarkRunner fromSystemProperties() {
+        return new BenchmarkRunner(Integer.getInteger("bench.warmup", 2), Integer.getInteger("bench.iterations", 5));
+    }
+
+    /**
+     * @param ops число вызовов {@code op} за одну итерацию; аргумент — номер вызова с начала прогона
+     */
+    public Result run(String name, int size, int ops, IntConsumer op) {
+        int call = 0;
+        for (int i = 0; i < warmupIterations; i++) {
+            for (int j = 0; j < ops; j++) {
+                op.accept(call++);
+            }
+        }
+
+        double[] nsPerOp = new double[measureIterations];
+        for (int i = 0; i < measureIterations; i++) {
+            long start = System.nanoTime();
+            for (int j = 0; j < ops; j++) {
+                op.accept(call++);
+            }
+            nsPerOp[i] = (System.nanoTime() - start) / (double) ops;
+        }
+
+        Result result = new Result(name, size, ops, nsPerOp);
+        results.add(result);
+        System.out.println(result);
+        return result;
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    public void exportJson(Path file) throws IOException {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            gson.toJson(results, writer);
+        }
+        System.out.println("Results written to " + file.toAbsolutePath());
+    }
+
+    public static final class Result {
+        private final String benchmark;
+        private final int size;
+        private final int opsPerIteration;
+        private final double meanNsPerOp;
+        private final double minNsPerOp;
+        private final double maxNsPerOp;
+
+        Result(String benchmark, int size, int opsPerIteration, double[] nsPerOp) {
+            this.benchmark = benchmark;
+            this.size = size;
+            this.opsPerIteration = opsPerIteration;
+            this.meanNsPerOp = Arrays.stream(nsPerOp).average().orElse(0);
+            this.minNsPerOp = Arrays.stream(nsPerOp).min().orElse(0);
+            this.maxNsPerOp = Arrays.stream(nsPerOp).max().orElse(0);
+        }
+
+        public String getBenchmark() {
+            return benchmark;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public double getMeanNsPerOp() {
+            return meanNsPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-40s size=%-8d mean=%12.1f ns/op  min=%12.1f  max=%12.1f",
+                    benchmark, size, meanNsPerOp, minNsPerOp, maxNsPerOp);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import enums.Status;
+import interfaces.HistoryManager;
+import manager.ArrayHistoryManager;
+import manager.InMemoryHistoryManager;
+import model.Task;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Нагрузка на сборщик мусора в установившемся режиме истории: повторные просмотры и remove+add
+ * по уже заполненной истории. Сравниваются {@link InMemoryHistoryManager} (узел на просмотр)
+ * и {@link ArrayHistoryManager} (параллельные массивы со списком свободных ячеек).
+ * Кроме времени операции считаются выделенные потоком байты на операцию и число/время сборок.
+ * <p>
+ * Запуск: {@code java -Xmx1g -cp out:gson.jar benchmark.HistoryGcBenchmark},
+ * параметры {@code -Dbench.sizes=10000,1000000 -Dbench.ops=5000000 -Dbench.out=bench-results-history-gc.json}.
+ */
+public class HistoryGcBenchmark {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws IOException {
+        String[] sizes = System.getProperty("bench.sizes", "10000,1000000").split(",");
+        int ops = Integer.getInteger("bench.ops", 5_000_000);
+        Path out = Path.of(System.getProperty("bench.out", "bench-results-history-gc.json"));
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (String s : sizes) {
+            int size = Integer.parseInt(s.trim());
+            Task[] tasks = new Task[size];
+            for (int i = 0; i < size; i++) {
+                tasks[i] = new Task(i + 1, "T", "D", Status.NEW, 0, null);
+            }
+
+            results.add(measure(runner, "linked", size, ops, tasks, InMemoryHistoryManager::new));
+            results.add(measure(runner, "array", size, ops, tasks, ArrayHistoryManager::new));
+        }
+
+        runner.exportJson(out.resolveSibling(out.getFileName() + ".timing.json"));
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try (Writer writer = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            gson.toJson(results, writer);
+        }
+        System.out.println("Results written to " + out.toAbsolutePath());
+    }
+
+    private static Map<String, Object> measure(BenchmarkRunner runner, String name, int size, int ops,
+                                               Task[] tasks, Supplier<HistoryManager> factory) {
+        HistoryManager history = factory.get();
+        for (Task task : tasks) {
+            history.add(task);
+        }
+
+        runner.run("history." + name + ".add", size, ops, i -> history.add(tasks[(int) ((i * 31L) % size)]));
+        runner.run("history." + name + ".remove+add", size, ops, i -> {
+            Task task = tasks[(int) ((i * 17L) % size)];
+            history.remove(task.getId());
+            history.add(task);
+        });
+
+        // Отдельный прогон с замером выделений и сборок, без обвязки раннера
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTimeMillis();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int i = 0; i < ops; i++) {
+            Task task = tasks[(int) ((i * 17L) % size)];
+            if ((i & 1) == 0) {
+                history.remove(task.getId());
+            }
+            history.add(task);
+        }
+        long allocated = THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedBefore;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("structure", name);
+        result.put("size", size);
+        result.put("ops", ops);
+        result.put("allocatedBytesPerOp", allocated / (double) ops);
+        result.put("gcCount", gcCount() - gcCountBefore);
+        result.put("gcTimeMillis", gcTimeMillis() - gcTimeBefore);
+        System.out.printf("%-8s size=%-9d %8.2f bytes/op  gc=%d (%d ms)%n", name, size, allocated / (double) ops,
+                gcCount() - gcCountBefore, gcTimeMillis() - gcTimeBefore);
+        return result;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTimeMillis() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+}
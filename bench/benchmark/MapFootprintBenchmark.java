@@ -0,0 +1,96 @@
+package benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import enums.Status;
+import model.Task;
+import util.IntObjectHashMap;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Сравнение памяти на запись: {@code HashMap<Integer, Task>} против {@link IntObjectHashMap}.
+ * Во всех записях один и тот же объект Task, поэтому считается только накладной расход структуры.
+ * <p>
+ * Запуск: {@code java -Xmx4g -cp out:gson.jar benchmark.MapFootprintBenchmark},
+ * параметры {@code -Dbench.sizes=1000000,5000000 -Dbench.out=bench-footprint.json}.
+ */
+public class MapFootprintBenchmark {
+    private static Object keepAlive;
+
+    public static void main(String[] args) throws IOException {
+        String[] sizes = System.getProperty("bench.sizes", "1000000,5000000").split(",");
+        Path out = Path.of(System.getProperty("bench.out", "bench-results-footprint.json"));
+        Task task = new Task(1, "T", "D", Status.NEW, 0, null);
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (String s : sizes) {
+            int size = Integer.parseInt(s.trim());
+
+            long boxed = measure(() -> {
+                Map<Integer, Task> map = new HashMap<>();
+                for (int i = 1; i <= size; i++) {
+                    map.put(i, task);
+                }
+                return map;
+            });
+            long primitive = measure(() -> {
+                IntObjectHashMap<Task> map = new IntObjectHashMap<>();
+                for (int i = 1; i <= size; i++) {
+                    map.put(i, task);
+                }
+                return map;
+            });
+
+            results.add(result("HashMap<Integer,Task>", size, boxed));
+            results.add(result("IntObjectHashMap<Task>", size, primitive));
+        }
+
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try (Writer writer = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            gson.toJson(results, writer);
+        }
+        System.out.println("Results written to " + out.toAbsolutePath());
+    }
+
+    private static Map<String, Object> result(String structure, int size, long bytes) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("structure", structure);
+        result.put("size", size);
+        result.put("bytes", bytes);
+        result.put("bytesPerEntry", bytes / (double) size);
+        System.out.printf("%-24s size=%-9d %8.1f bytes/entry%n", structure, size, bytes / (double) size);
+        return result;
+    }
+
+    private static long measure(Supplier<Object> build) {
+        long before = usedMemory();
+        keepAlive = build.get();
+        long after = usedMemory();
+        keepAlive = null;
+        return after - before;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
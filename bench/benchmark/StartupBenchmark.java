@@ -0,0 +1,106 @@
+package benchmark;
+
+import enums.Durability;
+import enums.PersistenceMode;
+import enums.Status;
+import manager.FileBackedTaskManager;
+import manager.FlushPolicy;
+import manager.InMemoryHistoryManager;
+import manager.InMemoryTaskManager;
+import model.Epic;
+import model.Subtask;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Время старта на крупных эпиках: раскладка строк снимка с пересчётом эпика после каждой подзадачи
+ * против массовой загрузки, где каждый эпик считается один раз, и полный loadFromFile для сравнения.
+ * <p>
+ * Запуск: {@code java -cp out:gson.jar benchmark.StartupBenchmark},
+ * параметры {@code -Dbench.epicSizes=10000,50000,200000 -Dbench.epics=5 -Dbench.out=bench-results-startup.json}.
+ */
+public class StartupBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    public static void main(String[] args) throws IOException {
+        int[] epicSizes = Arrays.stream(System.getProperty("bench.epicSizes", "10000,50000,200000").split(","))
+                .mapToInt(s -> Integer.parseInt(s.trim()))
+                .toArray();
+        int epicCount = Integer.getInteger("bench.epics", 5);
+        Path out = Path.of(System.getProperty("bench.out", "bench-results-startup.json"));
+        Path dir = Files.createTempDirectory("task-startup");
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+
+        for (int epicSize : epicSizes) {
+            int size = epicCount * epicSize;
+            List<Subtask> rows = subtaskRows(epicCount, epicSize);
+
+            runner.run("restore.perRow", size, 1, i -> new RestoringManager().restoreAll(epicCount, rows, false));
+            runner.run("restore.bulk", size, 1, i -> new RestoringManager().restoreAll(epicCount, rows, true));
+
+            Path file = dir.resolve("startup-" + epicSize + ".csv");
+            writeFile(file, epicCount, rows);
+            runner.run("loadFromFile", size, 1, i -> FileBackedTaskManager.loadFromFile(file));
+            Files.deleteIfExists(file);
+        }
+        runner.exportJson(out);
+    }
+
+    // Эпики получают id 1..epicCount, подзадачи идут за ними, у половины есть время
+    private static List<Subtask> subtaskRows(int epicCount, int epicSize) {
+        List<Subtask> rows = new ArrayList<>(epicCount * epicSize);
+        int id = epicCount + 1;
+        for (int e = 1; e <= epicCount; e++) {
+            for (int i = 0; i < epicSize; i++) {
+                LocalDateTime start = i % 2 == 0 ? BASE.plusMinutes(2L * id) : null;
+                rows.add(new Subtask(id++, "S" + i, "D", i % 3 == 0 ? Status.DONE : Status.NEW, e,
+                        start == null ? 0 : 1, start));
+            }
+        }
+        return rows;
+    }
+
+    private static void writeFile(Path file, int epicCount, List<Subtask> rows) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, PersistenceMode.SNAPSHOT,
+                FlushPolicy.writeBehind(Integer.MAX_VALUE, Duration.ofDays(1), Durability.NONE));
+        for (int e = 1; e <= epicCount; e++) {
+            manager.createEpic(new Epic("E" + e, "D"));
+        }
+        for (Subtask row : rows) {
+            manager.createSubtask(new Subtask(row.getName(), row.getDescription(), row.getStatus(), row.getEpicId(),
+                    row.getDuration(), row.getStartTime()));
+        }
+        manager.close();
+    }
+
+    // Раскладывает строки так же, как загрузка FileBackedTaskManager, с массовым режимом и без
+    private static final class RestoringManager extends InMemoryTaskManager {
+        RestoringManager() {
+            super(new InMemoryHistoryManager());
+        }
+
+        void restoreAll(int epicCount, List<Subtask> rows, boolean bulk) {
+            if (bulk) {
+                beginBulkRestore();
+            }
+            for (int e = 1; e <= epicCount; e++) {
+                epics.put(e, new Epic(e, "E" + e, "D", 0, null));
+            }
+            for (Subtask row : rows) {
+                subtasks.put(row.getId(), row);
+                addToPrioritized(row);
+                attachSubtask(epics.get(row.getEpicId()), row);
+            }
+            if (bulk) {
+                endBulkRestore();
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package benchmark;
+
+import enums.Durability;
+import enums.PersistenceMode;
+import enums.SnapshotFormat;
+import enums.Status;
+import interfaces.HistoryManager;
+import manager.ConcurrentHistoryManager;
+import manager.FileBackedTaskManager;
+import manager.FlushPolicy;
+import manager.InMemoryHistoryManager;
+import manager.InMemoryTaskManager;
+import manager.SnapshotConverter;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Бенчмарки операций TaskManager на 1k/100k/1M существующих задач.
+ * <p>
+ * Запуск: {@code java -cp out:gson.jar benchmark.TaskManagerBenchmark}, параметры:
+ * {@code -Dbench.sizes=1000,100000,1000000 -Dbench.ops=10000 -Dbench.fileOps=20 -Dbench.out=bench-results.json}.
+ */
+public class TaskManagerBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final int SUBTASKS_PER_EPIC = 1000;
+
+    private final BenchmarkRunner runner;
+    private final int ops;
+    private final int fileOps;
+    private final Path dir;
+
+    TaskManagerBenchmark(BenchmarkRunner runner, int ops, int fileOps, Path dir) {
+        this.runner = runner;
+        this.ops = ops;
+        this.fileOps = fileOps;
+        this.dir = dir;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = Arrays.stream(System.getProperty("bench.sizes", "1000,100000,1000000").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Path out = Path.of(System.getProperty("bench.out", "bench-results.json"));
+        Path dir = Files.createTempDirectory("task-bench");
+
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+        TaskManagerBenchmark bench = new TaskManagerBenchmark(runner,
+                Integer.getInteger("bench.ops", 10_000), Integer.getInteger("bench.fileOps", 20), dir);
+
+        for (int size : sizes) {
+            bench.inMemory(size);
+            bench.history(size);
+            bench.fileBacked(size, PersistenceMode.SNAPSHOT);
+            bench.fileBacked(size, PersistenceMode.JOURNAL);
+            bench.loadFromFile(size);
+        }
+        runner.exportJson(out);
+    }
+
+    // ---------- IN MEMORY ----------
+    void inMemory(int size) {
+        InMemoryTaskManager manager = new InMemoryTaskManager(new InMemoryHistoryManager());
+        Epic epic = fill(manager, size);
+        int firstId = manager.createTask(new Task("probe", "", Status.NEW)).getId();
+
+        runner.run("inMemory.createTask", size, ops,
+                i -> manager.createTask(new Task("T", "D", Status.NEW)));
+        runner.run("inMemory.updateTask", size, ops,
+                i -> manager.updateTask(new Task(firstId - 1 - i % (size / 2), "T", "D", Status.DONE, 0, null)));
+        int lastId = manager.createTask(new Task("probe", "", Status.NEW)).getId();
+        runner.run("inMemory.deleteTask", size, ops,
+                i -> manager.deleteTaskById(lastId - 1 - i));
+
+        runner.run("inMemory.createSubtask", size, ops,
+                i -> manager.createSubtask(new Subtask("S", "D", Status.IN_PROGRESS, epic.getId())));
+        int lastSubId = manager.createSubtask(new Subtask("probe", "", Status.NEW, epic.getId())).getId();
+        runner.run("inMemory.updateSubtask", size, ops,
+                i -> manager.updateSubtask(new Subtask(lastSubId - i % ops, "S", "D", Status.DONE, epic.getId(), 0, null)));
+        runner.run("inMemory.deleteSubtask", size, ops,
+                i -> manager.deleteSubtaskById(lastSubId - i));
+
+        runner.run("inMemory.getPrioritizedTasks", size, Math.max(1, ops / 1000),
+                i -> manager.getPrioritizedTasks());
+        runner.run("inMemory.getSubtasksOfEpic", size, Math.max(1, ops / 1000),
+                i -> manager.getSubtasksOfEpic(epic.getId()));
+    }
+
+    // ---------- HISTORY ----------
+    void history(int size) {
+        HistoryManager history = new InMemoryHistoryManager();
+        Task[] tasks = new Task[size];
+        for (int i = 0; i < size; i++) {
+            tasks[i] = new Task(i + 1, "T", "D", Status.NEW, 0, null);
+            history.add(tasks[i]);
+        }
+
+        runner.run("history.add", size, ops, i -> history.add(tasks[(i * 31) % size]));
+        runner.run("history.remove+add", size, ops, i -> {
+            Task task = tasks[(i * 17) % size];
+            history.remove(task.getId());
+            history.add(task);
+        });
+        runner.run("history.getHistory", size, Math.max(1, ops / 1000), i -> history.getHistory());
+        runner.run("history.getHistory(10)", size, ops, i -> history.getHistory(10));
+
+        HistoryManager concurrent = new ConcurrentHistoryManager();
+        for (Task task : tasks) {
+            concurrent.add(task);
+        }
+        runner.run("history.concurrent.add", size, ops, i -> concurrent.add(tasks[(i * 31) % size]));
+        runner.run("history.concurrent.getHistory(10)", size, Math.max(1, ops / 100), i -> concurrent.getHistory(10));
+    }
+
+    // ---------- FILE BACKED ----------
+    void fileBacked(int size, PersistenceMode mode) throws IOException {
+        Path file = dir.resolve("bench-" + mode + "-" + size + ".csv");
+        prepareFile(file, size);
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(file, mode);
+
+        String prefix = "fileBacked." + mode.name().toLowerCase() + ".";
+        int firstId = manager.createTask(new Task("probe", "", Status.NEW)).getId();
+        runner.run(prefix + "createTask", size, fileOps,
+                i -> manager.createTask(new Task("T", "D", Status.NEW)));
+        runner.run(prefix + "updateTask", size, fileOps,
+                i -> manager.updateTask(new Task(firstId - 1 - i % (size / 2), "T", "D", Status.DONE, 0, null)));
+        runner.run(prefix + "getTaskById", size, fileOps,
+                i -> manager.getTaskById(firstId - 1 - i % (size / 2)));
+        manager.close();
+    }
+
+    void loadFromFile(int size) throws IOException {
+        Path file = dir.resolve("bench-load-" + size + ".csv");
+        prepareFile(file, size);
+
+        runner.run("loadFromFile", size, 1, i -> FileBackedTaskManager.loadFromFile(file));
+
+        Path binary = dir.resolve("bench-load-" + size + ".bin");
+        SnapshotConverter.convert(file, binary, SnapshotFormat.BINARY);
+        runner.run("loadFromFile.binary", size, 1, i -> FileBackedTaskManager.loadFromFile(binary));
+        Files.deleteIfExists(binary);
+    }
+
+    // Снимок пишется одним сбросом, иначе заполнение на миллионе задач заняло бы часы
+    private static void prepareFile(Path file, int size) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, PersistenceMode.SNAPSHOT,
+                FlushPolicy.writeBehind(Integer.MAX_VALUE, Duration.ofDays(1), Durability.NONE));
+        fill(manager, size);
+        manager.close();
+    }
+
+    /**
+     * Половина — подзадачи (эпики по {@value SUBTASKS_PER_EPIC} штук), половина — задачи
+     * с непересекающимися интервалами. Задачи создаются последними, их id идут подряд до последнего.
+     *
+     * @return первый эпик — в нём больше всего подзадач
+     */
+    private static Epic fill(InMemoryTaskManager manager, int size) {
+        Epic first = null;
+        Epic epic = null;
+        for (int i = 0; i < size / 2; i++) {
+            if (i % SUBTASKS_PER_EPIC == 0) {
+                epic = manager.createEpic(new Epic("E" + i, "D"));
+                if (first == null) {
+                    first = epic;
+                }
+            }
+            manager.createSubtask(new Subtask("S" + i, "D", i % 2 == 0 ? Status.NEW : Status.DONE, epic.getId()));
+        }
+        for (int i = 0; i < size / 2; i++) {
+            manager.createTask(new Task("T" + i, "D", Status.NEW, 1, BASE.plusMinutes(2L * i)));
+        }
+        return first != null ? first : manager.createEpic(new Epic("E", "D"));
+    }
+}
@@ -1,52 +1,382 @@
 package HttpServer.HttpHandler;
 
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import enums.Status;
+import model.Task;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 public abstract class BaseHttpHandler implements HttpHandler {
+    protected static final int MAX_PAGE_SIZE = 10_000;
+    protected static final int STREAM_PAGE_SIZE = 1_000;
+    protected static final String NEXT_AFTER_HEADER = "X-Next-After";
+    private static final int RESPONSE_BUFFER_SIZE = 16 * 1024;
+    // Отличает ETag разных запусков сервера: версии в менеджере после перезапуска начинаются заново
+    private static final String ETAG_PREFIX = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    // Ответы короче порога не сжимаются: выигрыш меньше накладных расходов gzip (-Dhttp.gzip.minSize=1024)
+    private static final int GZIP_MIN_SIZE = Math.max(0, Integer.getInteger("http.gzip.minSize", 1024));
+    private static final boolean GZIP_ENABLED = !"false".equals(System.getProperty("http.gzip"));
+    private static final CompressionStats COMPRESSION_STATS = new CompressionStats();
+
     protected final Gson gson;
 
+    /** Источник страниц: до {@code limit} элементов с id больше {@code afterId}. */
+    @FunctionalInterface
+    protected interface PageSource<T extends Task> {
+        List<T> page(int afterId, int limit);
+    }
+
+    /** Страницы по индексу статуса, см. {@link PageSource}. */
+    @FunctionalInterface
+    protected interface StatusPageSource<T extends Task> {
+        List<T> page(Status status, int afterId, int limit);
+    }
+
     protected BaseHttpHandler(Gson gson) {
         this.gson = gson;
     }
 
+    /** Общие для всех обработчиков счётчики сжатия ответов. */
+    public static CompressionStats compressionStats() {
+        return COMPRESSION_STATS;
+    }
+
+    /**
+     * Сериализует ответ прямо в тело через {@link JsonWriter}, без промежуточных String и byte[].
+     * Короткий ответ уходит с известной длиной, длинный — chunked и, если клиент согласен, в gzip;
+     * {@code null} — ответ без тела.
+     */
     protected void sendJson(HttpExchange h, int code, Object body) throws IOException {
-        String json = (body == null) ? "" : gson.toJson(body);
-        byte[] resp = json.getBytes(StandardCharsets.UTF_8);
         h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        h.sendResponseHeaders(code, resp.length);
-        h.getResponseBody().write(resp);
-        h.close();
+        if (body == null) {
+            h.sendResponseHeaders(code, -1);
+            h.close();
+            return;
+        }
+
+        try (JsonWriter writer = openJsonWriter(openBody(h, code))) {
+            gson.toJson(body, body.getClass(), writer);
+        } finally {
+            h.close();
+        }
     }
 
-    protected void sendText(HttpExchange h, int code, String text) throws IOException {
-        byte[] resp = text.getBytes(StandardCharsets.UTF_8);
+    /**
+     * Ответ на GET списка.
+     * {@code ?stream=true} — весь список потоком, без промежуточных копий;
+     * {@code ?limit=&after=} — одна страница, id для следующей приходит в заголовке {@value #NEXT_AFTER_HEADER};
+     * без параметров — весь список, как раньше.
+     */
+    protected <T extends Task> void sendList(HttpExchange h, Supplier<List<T>> all, PageSource<T> pages)
+            throws IOException {
+        sendList(h, parseQuery(h), all, pages);
+    }
+
+    /** То же с фильтром {@code ?status=NEW|IN_PROGRESS|DONE}; выборка идёт по индексу статуса. */
+    protected <T extends Task> void sendList(HttpExchange h, Supplier<List<T>> all, PageSource<T> pages,
+                                             StatusPageSource<T> byStatus) throws IOException {
+        Map<String, String> query = parseQuery(h);
+        String raw = query.get("status");
+        if (raw == null) {
+            sendList(h, query, all, pages);
+            return;
+        }
+
+        Status status;
+        try {
+            status = Status.valueOf(raw.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(h, "Неизвестный статус: " + raw);
+            return;
+        }
+        sendList(h, query, () -> byStatus.page(status, 0, Integer.MAX_VALUE),
+                (afterId, limit) -> byStatus.page(status, afterId, limit));
+    }
+
+    private <T extends Task> void sendList(HttpExchange h, Map<String, String> query, Supplier<List<T>> all,
+                                           PageSource<T> pages) throws IOException {
+        if ("true".equals(query.get("stream"))) {
+            sendJsonStream(h, pages);
+            return;
+        }
+        if (!query.containsKey("limit") && !query.containsKey("after")) {
+            sendJson(h, 200, all.get());
+            return;
+        }
+
+        int limit;
+        int after;
+        try {
+            limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : MAX_PAGE_SIZE;
+            after = query.containsKey("after") ? Integer.parseInt(query.get("after")) : 0;
+        } catch (NumberFormatException e) {
+            sendBadRequest(h, "limit и after должны быть целыми числами");
+            return;
+        }
+        if (limit <= 0) {
+            sendBadRequest(h, "limit должен быть больше нуля");
+            return;
+        }
+
+        limit = Math.min(limit, MAX_PAGE_SIZE);
+        List<T> page = pages.page(after, limit);
+        if (page.size() == limit) {
+            h.getResponseHeaders().add(NEXT_AFTER_HEADER, String.valueOf(page.get(page.size() - 1).getId()));
+        }
+        sendJson(h, 200, page);
+    }
+
+    /**
+     * Пишет JSON-массив прямо в тело ответа (chunked), забирая элементы страницами по {@value #STREAM_PAGE_SIZE}.
+     * В памяти одновременно держится только одна страница.
+     */
+    protected <T extends Task> void sendJsonStream(HttpExchange h, PageSource<T> pages) throws IOException {
         h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        h.sendResponseHeaders(code, resp.length);
-        h.getResponseBody().write(resp);
+        try (JsonWriter writer = openJsonWriter(openBody(h, 200))) {
+            writer.beginArray();
+            int after = 0;
+            List<T> page;
+            do {
+                page = pages.page(after, STREAM_PAGE_SIZE);
+                for (T item : page) {
+                    gson.toJson(item, item.getClass(), writer);
+                }
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == STREAM_PAGE_SIZE);
+            writer.endArray();
+        } finally {
+            h.close();
+        }
+    }
+
+    /** Готовое тело и, если задан, заголовок ETag; длинное тело при согласии клиента уходит в gzip. */
+    protected void sendBytes(HttpExchange h, int code, byte[] body, String etag) throws IOException {
+        h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        if (etag != null) {
+            h.getResponseHeaders().set("ETag", etag);
+        }
+        try (OutputStream out = openBody(h, code)) {
+            out.write(body);
+        } finally {
+            h.close();
+        }
+    }
+
+    protected void sendNotModified(HttpExchange h, String etag) throws IOException {
+        h.getResponseHeaders().set("ETag", etag);
+        h.sendResponseHeaders(304, -1);
         h.close();
     }
 
+    /** ETag по версии из менеджера; {@code variant} (например, строка запроса) различает представления. */
+    protected static String etag(String kind, long version, String variant) {
+        String tag = ETAG_PREFIX + "-" + kind + version;
+        if (variant != null && !variant.isEmpty()) {
+            tag += "-" + Integer.toHexString(variant.hashCode());
+        }
+        return "\"" + tag + "\"";
+    }
+
+    /**
+     * Условный GET: если клиент уже видел {@code etag}, отвечает 304 и возвращает {@code true};
+     * иначе ставит ETag в заголовки будущего ответа.
+     */
+    protected boolean checkNotModified(HttpExchange h, String etag) throws IOException {
+        if (isNotModified(h, etag)) {
+            sendNotModified(h, etag);
+            return true;
+        }
+        h.getResponseHeaders().set("ETag", etag);
+        return false;
+    }
+
+    /** Есть ли {@code etag} в If-None-Match запроса (список через запятую или {@code *}). */
+    protected boolean isNotModified(HttpExchange h, String etag) {
+        String header = h.getRequestHeaders().getFirst("If-None-Match");
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected void sendText(HttpExchange h, int code, String text) throws IOException {
+        sendBytes(h, code, text.getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    protected void sendBadRequest(HttpExchange h, String message) throws IOException {
+        sendText(h, 400, errorBody(message));
+    }
+
     protected void sendNotFound(HttpExchange h) throws IOException {
         sendText(h, 404, "{\"error\":\"Not Found\"}");
     }
 
+    protected void sendGone(HttpExchange h, String message) throws IOException {
+        sendText(h, 410, errorBody(message));
+    }
+
     protected void sendHasIntersections(HttpExchange h, String message) throws IOException {
-        sendText(h, 406, "{\"error\":\"" + message + "\"}");
+        sendText(h, 406, errorBody(message));
     }
 
     protected void sendServerError(HttpExchange h, String message) throws IOException {
-        sendText(h, 500, "{\"error\":\"" + message + "\"}");
+        sendText(h, 500, errorBody(message));
+    }
+
+    // Сообщение может содержать значения из запроса, поэтому JSON собирает gson, а не конкатенация
+    private String errorBody(String message) {
+        return gson.toJson(Collections.singletonMap("error", message));
     }
 
     protected String readBody(HttpExchange h) throws IOException {
         return new String(h.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
     }
 
+    /** Разбирает JSON прямо из тела запроса, не собирая его в строку; пустое тело — {@code null}. */
+    protected <T> T readJson(HttpExchange h, Class<T> type) throws IOException {
+        try (Reader reader = new InputStreamReader(h.getRequestBody(), StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, type);
+        }
+    }
+
+    /** Тело запроса — JSON-массив; пустое тело — {@code null}. */
+    protected <T> List<T> readJsonList(HttpExchange h, Class<T[]> type) throws IOException {
+        T[] items = readJson(h, type);
+        return items == null ? null : Arrays.asList(items);
+    }
+
+    /**
+     * Проверяет тело POST .../batch и отвечает 400, если пачка пустая или в ней смешаны создание и обновление.
+     * @return пачка или {@code null}, если ответ уже отправлен
+     */
+    protected <T extends Task> List<T> readBatch(HttpExchange h, Class<T[]> type) throws IOException {
+        List<T> batch = readJsonList(h, type);
+        if (batch == null || batch.isEmpty() || batch.contains(null)) {
+            sendBadRequest(h, "Пачка должна быть непустым массивом объектов");
+            return null;
+        }
+
+        int fresh = 0;
+        for (T item : batch) {
+            if (item.getId() == 0) {
+                fresh++;
+            }
+        }
+        if (fresh != 0 && fresh != batch.size()) {
+            sendBadRequest(h, "В одной пачке нельзя смешивать создание и обновление");
+            return null;
+        }
+        return batch;
+    }
+
+    /** Все id в пачке нулевые — пачка на создание. */
+    protected static boolean isCreateBatch(List<? extends Task> batch) {
+        return batch.get(0).getId() == 0;
+    }
+
+    /** id из параметра {@code ?ids=1,2,3}; при нечисловом id — NumberFormatException. */
+    protected List<Integer> parseIds(HttpExchange h) {
+        List<Integer> ids = new ArrayList<>();
+        String raw = parseQuery(h).get("ids");
+        if (raw == null || raw.isBlank()) {
+            return ids;
+        }
+        for (String part : raw.split(",")) {
+            ids.add(Integer.parseInt(part.trim()));
+        }
+        return ids;
+    }
+
+    private JsonWriter openJsonWriter(OutputStream body) throws IOException {
+        return gson.newJsonWriter(new OutputStreamWriter(
+                new BufferedOutputStream(body, RESPONSE_BUFFER_SIZE), StandardCharsets.UTF_8));
+    }
+
+    /** Тело ответа; заголовки уходят при первой записи сверх порога или при закрытии потока. */
+    private OutputStream openBody(HttpExchange h, int code) {
+        boolean gzip = GZIP_ENABLED && acceptsGzip(h);
+        if (GZIP_ENABLED) {
+            h.getResponseHeaders().set("Vary", "Accept-Encoding");
+        }
+        return new ResponseBodyStream(h, code, GZIP_MIN_SIZE, gzip, COMPRESSION_STATS);
+    }
+
+    /** Принимает ли клиент gzip: {@code gzip} или {@code *} в Accept-Encoding без {@code q=0}. */
+    static boolean acceptsGzip(HttpExchange h) {
+        String header = h.getRequestHeaders().getFirst("Accept-Encoding");
+        if (header == null) {
+            return false;
+        }
+        for (String part : header.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals("gzip") && !coding.equals("x-gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(param.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected Map<String, String> parseQuery(HttpExchange h) {
+        Map<String, String> params = new HashMap<>();
+        String query = h.getRequestURI().getRawQuery();
+        if (query == null || query.isBlank()) {
+            return params;
+        }
+
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
     protected Integer parseIdFromPath(String path, String basePath) {
         String[] parts = path.split("/");
         if (parts.length == 3 && parts[1].equals(basePath.replace("/", ""))) {
@@ -0,0 +1,172 @@
+package HttpServer.HttpHandler;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import interfaces.TaskManager;
+import manager.ChangeLog;
+import model.TaskChange;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Лента изменений: {@code GET /changes?since=<seq>&epoch=<epoch>}.
+ * <ul>
+ *     <li>без {@code since} — только текущие epoch и last, с них клиент начинает следить за лентой;</li>
+ *     <li>{@code &wait=<ms>} — long-poll: если событий ещё нет, ответ ждёт их до {@value #MAX_WAIT_MS} мс;</li>
+ *     <li>{@code Accept: text/event-stream} или {@code &stream=sse} — Server-Sent Events,
+ *     номер события в {@code id:}, переподключение продолжает с Last-Event-ID.</li>
+ * </ul>
+ * Если события после {@code since} уже вытеснены из буфера или epoch не совпал (сервер перезапущен) — 410,
+ * клиент перечитывает коллекции целиком.
+ * <p>
+ * Ждущий запрос занимает поток обработчика, поэтому ждать одновременно могут не больше {@code maxWaiters}
+ * клиентов; остальные сразу получают то, что уже есть: long-poll — без ожидания, SSE — одну порцию
+ * и закрытие потока, после чего клиент переподключается.
+ */
+public class ChangesHandler extends BaseHttpHandler {
+    private static final int MAX_BATCH = 1_000;
+    private static final long MAX_WAIT_MS = 30_000;
+    private static final long SSE_SESSION_MS = 60_000; // потом соединение закрывается, клиент переподключается
+
+    private final ChangeLog changes;
+    private final Semaphore waiters;
+
+    /** @param maxWaiters сколько запросов могут ждать событий одновременно; 0 — не ждать вовсе (поток диспетчера) */
+    public ChangesHandler(TaskManager manager, Gson gson, int maxWaiters) {
+        super(gson);
+        if (maxWaiters < 0) {
+            throw new IllegalArgumentException("maxWaiters не может быть отрицательным");
+        }
+        this.changes = manager.getChangeLog();
+        this.waiters = new Semaphore(maxWaiters);
+    }
+
+    @Override
+    public void handle(HttpExchange h) throws IOException {
+        try {
+            if (!"GET".equals(h.getRequestMethod()) || !"/changes".equals(h.getRequestURI().getPath())) {
+                sendNotFound(h);
+                return;
+            }
+
+            Map<String, String> query = parseQuery(h);
+            String epoch = query.get("epoch");
+            if (epoch != null && !epoch.equals(changes.getEpoch())) {
+                sendGone(h, "Лента перезапущена, перечитайте коллекции");
+                return;
+            }
+
+            String since = h.getRequestHeaders().getFirst("Last-Event-ID");
+            if (since == null) {
+                since = query.get("since");
+            }
+            long wait = query.containsKey("wait") ? Long.parseLong(query.get("wait")) : 0;
+            if (wait < 0) {
+                sendBadRequest(h, "wait не может быть отрицательным");
+                return;
+            }
+
+            if (isEventStream(h, query)) {
+                streamEvents(h, since == null ? changes.getLastSeq() : Long.parseLong(since));
+            } else if (since == null) {
+                sendJson(h, 200, new ChangesResponse(changes.getEpoch(), changes.getLastSeq(), List.of()));
+            } else {
+                poll(h, Long.parseLong(since), Math.min(wait, MAX_WAIT_MS));
+            }
+        } catch (NumberFormatException e) {
+            sendBadRequest(h, "since и wait должны быть целыми числами");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendServerError(h, "Ожидание прервано");
+        } catch (Exception e) {
+            sendServerError(h, e.getMessage());
+        }
+    }
+
+    private void poll(HttpExchange h, long since, long wait) throws IOException, InterruptedException {
+        List<TaskChange> batch;
+        if (wait > 0 && waiters.tryAcquire()) {
+            try {
+                batch = changes.await(since, MAX_BATCH, wait);
+            } finally {
+                waiters.release();
+            }
+        } else {
+            batch = changes.since(since, MAX_BATCH);
+        }
+        if (batch == null) {
+            sendGone(h, "События после since уже вытеснены, перечитайте коллекции");
+            return;
+        }
+        long last = batch.isEmpty() ? since : batch.get(batch.size() - 1).getSeq();
+        sendJson(h, 200, new ChangesResponse(changes.getEpoch(), last, batch));
+    }
+
+    // Заголовки уходят сразу, каждая порция событий — отдельным flush; без gzip, чтобы события не застревали в буфере
+    private void streamEvents(HttpExchange h, long since) throws IOException {
+        List<TaskChange> batch = changes.since(since, MAX_BATCH);
+        if (batch == null) {
+            sendGone(h, "События после since уже вытеснены, перечитайте коллекции");
+            return;
+        }
+
+        h.getResponseHeaders().set("Content-Type", "text/event-stream;charset=utf-8");
+        h.getResponseHeaders().set("Cache-Control", "no-cache");
+        h.sendResponseHeaders(200, 0);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SSE_SESSION_MS);
+        boolean waiting = waiters.tryAcquire(); // без разрешения — одна порция и закрытие
+        try (Writer out = new OutputStreamWriter(h.getResponseBody(), StandardCharsets.UTF_8)) {
+            out.write("event: epoch\ndata: " + changes.getEpoch() + "\n\n");
+            out.flush();
+            while (batch != null) {
+                for (TaskChange change : batch) {
+                    out.write("id: " + change.getSeq() + "\nevent: change\ndata: " + gson.toJson(change) + "\n\n");
+                    since = change.getSeq();
+                }
+                out.flush();
+
+                long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (!waiting || left <= 0) {
+                    break;
+                }
+                batch = changes.await(since, MAX_BATCH, left);
+            }
+            if (batch == null) {
+                out.write("event: gone\ndata: {}\n\n");
+            }
+        } catch (IOException e) {
+            // клиент отключился — ничего не делаем
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (waiting) {
+                waiters.release();
+            }
+            h.close();
+        }
+    }
+
+    private static boolean isEventStream(HttpExchange h, Map<String, String> query) {
+        String accept = h.getRequestHeaders().getFirst("Accept");
+        return "sse".equals(query.get("stream")) || (accept != null && accept.contains("text/event-stream"));
+    }
+
+    private static final class ChangesResponse {
+        private final String epoch;
+        private final long last;
+        private final List<TaskChange> changes;
+
+        ChangesResponse(String epoch, long last, List<TaskChange> changes) {
+            this.epoch = epoch;
+            this.last = last;
+            this.changes = changes;
+        }
+    }
+}
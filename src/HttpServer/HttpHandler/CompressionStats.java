@@ -0,0 +1,53 @@
+package HttpServer.HttpHandler;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Счётчики сжатия ответов: сколько ответов ушло в gzip и сколько байт это сэкономило. */
+public final class CompressionStats {
+    private final LongAdder compressedResponses = new LongAdder();
+    private final LongAdder plainResponses = new LongAdder();
+    private final LongAdder bytesBeforeCompression = new LongAdder();
+    private final LongAdder bytesAfterCompression = new LongAdder();
+
+    void recordCompressed(long before, long after) {
+        compressedResponses.increment();
+        bytesBeforeCompression.add(before);
+        bytesAfterCompression.add(after);
+    }
+
+    void recordPlain() {
+        plainResponses.increment();
+    }
+
+    public long getCompressedResponses() {
+        return compressedResponses.sum();
+    }
+
+    public long getPlainResponses() {
+        return plainResponses.sum();
+    }
+
+    public long getBytesBeforeCompression() {
+        return bytesBeforeCompression.sum();
+    }
+
+    public long getBytesAfterCompression() {
+        return bytesAfterCompression.sum();
+    }
+
+    /** Сколько байт не ушло в сеть благодаря gzip. */
+    public long getBytesSaved() {
+        return getBytesBeforeCompression() - getBytesAfterCompression();
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionStats{" +
+                "compressed=" + getCompressedResponses() +
+                ", plain=" + getPlainResponses() +
+                ", bytesBefore=" + getBytesBeforeCompression() +
+                ", bytesAfter=" + getBytesAfterCompression() +
+                ", saved=" + getBytesSaved() +
+                '}';
+    }
+}
@@ -2,6 +2,7 @@ package HttpServer.HttpHandler;
 
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
+import enums.Type;
 import interfaces.TaskManager;
 import model.Epic;
 
@@ -9,10 +10,12 @@ import java.io.IOException;
 
 public class EpicsHandler extends BaseHttpHandler {
     private final TaskManager manager;
+    private final HistorySessions sessions;
 
-    public EpicsHandler(TaskManager manager, Gson gson) {
+    public EpicsHandler(TaskManager manager, Gson gson, HistorySessions sessions) {
         super(gson);
         this.manager = manager;
+        this.sessions = sessions;
     }
 
     @Override
@@ -22,7 +25,10 @@ public class EpicsHandler extends BaseHttpHandler {
             String path = h.getRequestURI().getPath();
 
             if ("GET".equals(method) && "/epics".equals(path)) {
-                sendJson(h, 200, manager.getAllEpics());
+                if (checkNotModified(h, etag("epics", manager.getVersion(Type.EPIC), h.getRequestURI().getRawQuery()))) {
+                    return;
+                }
+                sendList(h, manager::getAllEpics, manager::getEpicsPage, manager::getEpicsByStatus);
                 return;
             }
 
@@ -31,11 +37,15 @@ public class EpicsHandler extends BaseHttpHandler {
                 String[] parts = path.split("/");
                 int epicId = Integer.parseInt(parts[2]);
 
-                Epic epic = manager.getEpicById(epicId);
+                Epic epic = sessions.view(h, Type.EPIC, epicId, manager::getEpicById);
                 if (epic == null) {
                     sendNotFound(h);
                     return;
                 }
+                // версия эпика меняется при любом изменении его подзадач
+                if (checkNotModified(h, etag("epicSubtasks", epic.getVersion(), null))) {
+                    return;
+                }
                 sendJson(h, 200, manager.getSubtasksOfEpic(epicId));
                 return;
             }
@@ -43,15 +53,15 @@ public class EpicsHandler extends BaseHttpHandler {
             // GET /epics/{id}
             if ("GET".equals(method) && path.startsWith("/epics/") && !path.endsWith("/subtasks")) {
                 Integer id = parseIdFromPath(path, "/epics");
-                Epic epic = manager.getEpicById(id);
+                Epic epic = sessions.view(h, Type.EPIC, id, manager::getEpicById);
                 if (epic == null) sendNotFound(h);
-                else sendJson(h, 200, epic);
+                else if (!checkNotModified(h, etag("epic", epic.getVersion(), null))) sendJson(h, 200, epic);
                 return;
             }
 
             // POST /epics (create/update)
             if ("POST".equals(method) && "/epics".equals(path)) {
-                Epic epic = gson.fromJson(readBody(h), Epic.class);
+                Epic epic = readJson(h, Epic.class);
 
                 Epic result;
                 if (epic.getId() == 0) {
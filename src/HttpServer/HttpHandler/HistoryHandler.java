@@ -8,22 +8,53 @@ import java.io.IOException;
 
 public class HistoryHandler extends BaseHttpHandler {
     private final TaskManager manager;
+    private final HistorySessions sessions;
 
-    public HistoryHandler(TaskManager manager, Gson gson) {
+    public HistoryHandler(TaskManager manager, Gson gson, HistorySessions sessions) {
         super(gson);
         this.manager = manager;
+        this.sessions = sessions;
     }
 
     @Override
     public void handle(HttpExchange h) throws IOException {
         try {
             if ("GET".equals(h.getRequestMethod()) && "/history".equals(h.getRequestURI().getPath())) {
-                sendJson(h, 200, manager.getHistory());
+                String limit = parseQuery(h).get("limit");
+                if (HistorySessions.hasSession(h)) {
+                    sendSessionHistory(h, limit);
+                    return;
+                }
+                if (checkNotModified(h, etag("history", manager.getHistoryVersion(), limit))) {
+                    return;
+                }
+                if (limit == null) {
+                    sendJson(h, 200, manager.getHistory());
+                    return;
+                }
+                int n = Integer.parseInt(limit);
+                if (n <= 0) {
+                    sendBadRequest(h, "limit должен быть больше нуля");
+                    return;
+                }
+                sendJson(h, 200, manager.getHistory(n));
                 return;
             }
             sendNotFound(h);
+        } catch (NumberFormatException e) {
+            sendBadRequest(h, "limit должен быть целым числом");
         } catch (Exception e) {
             sendServerError(h, e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // История сессии сверяется с менеджером при каждом чтении, поэтому ETag для неё не считается
+    private void sendSessionHistory(HttpExchange h, String limit) throws IOException {
+        int n = limit == null ? Integer.MAX_VALUE : Integer.parseInt(limit);
+        if (n <= 0) {
+            sendBadRequest(h, "limit должен быть больше нуля");
+            return;
+        }
+        sendJson(h, 200, sessions.history(h, n));
+    }
+}
@@ -0,0 +1,209 @@
+package HttpServer.HttpHandler;
+
+import com.sun.net.httpserver.HttpExchange;
+import enums.Type;
+import interfaces.HistoryManager;
+import interfaces.TaskManager;
+import manager.HistoryPolicy;
+import manager.InMemoryHistoryManager;
+import model.Task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Истории просмотров по клиентам: запрос с заголовком {@value #SESSION_HEADER} пишет просмотры в свою историю,
+ * запрос без него — в общую историю менеджера, как раньше.
+ * Сессия создаётся при первом запросе, простаивающие дольше {@code idleTimeout} удаляются.
+ * Сессий не больше {@code maxSessions}: при переполнении вытесняется пачка тех, к которым дольше всего не обращались
+ * (при одновременном создании лимит может ненадолго превыситься на число параллельных запросов).
+ * Поиск давних сессий — обход всех сессий, но пачка в {@code 1/}{@value #EVICT_BATCH_DIVISOR} лимита
+ * освобождает место под столько же новых, так что на одну новую сессию приходится O(log n) в среднем.
+ * Каждая история синхронизирована отдельно, общей горячей структуры у клиентов нет.
+ */
+public final class HistorySessions {
+    public static final String SESSION_HEADER = "X-Session-Id";
+    public static final int DEFAULT_MAX_SESSIONS = 10_000;
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+    static final int EVICT_BATCH_DIVISOR = 64;
+
+    private final TaskManager manager;
+    private final HistoryPolicy policy;
+    private final int maxSessions;
+    private final long idleNanos;
+    private final LongSupplier clock;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep;
+
+    private static final class Session {
+        final HistoryManager history;
+        volatile long lastAccess;
+
+        Session(HistoryManager history, long now) {
+            this.history = history;
+            this.lastAccess = now;
+        }
+    }
+
+    // lastAccess копируется: поле сессии меняется конкурентно, а порядок в куче должен быть стабильным
+    private static final class Candidate {
+        final String key;
+        final Session session;
+        final long lastAccess;
+
+        Candidate(String key, Session session) {
+            this.key = key;
+            this.session = session;
+            this.lastAccess = session.lastAccess;
+        }
+    }
+
+    public HistorySessions(TaskManager manager) {
+        this(manager, HistoryPolicy.lru(1_000, 0), DEFAULT_MAX_SESSIONS, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /** @param policy ограничения истории каждой сессии */
+    public HistorySessions(TaskManager manager, HistoryPolicy policy, int maxSessions, Duration idleTimeout) {
+        this(manager, policy, maxSessions, idleTimeout, System::nanoTime);
+    }
+
+    HistorySessions(TaskManager manager, HistoryPolicy policy, int maxSessions, Duration idleTimeout,
+                    LongSupplier clock) {
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("maxSessions должен быть больше нуля");
+        }
+        if (idleTimeout == null || idleTimeout.isZero() || idleTimeout.isNegative()) {
+            throw new IllegalArgumentException("idleTimeout должен быть больше нуля");
+        }
+        this.manager = manager;
+        this.policy = policy;
+        this.maxSessions = maxSessions;
+        this.idleNanos = idleTimeout.toNanos();
+        this.clock = clock;
+        this.nextSweep = new AtomicLong(clock.getAsLong() + idleNanos);
+    }
+
+    /**
+     * Просмотр сущности по запросу. С заголовком сессии сущность ищется без записи в общую историю
+     * и попадает в историю сессии; без заголовка — {@code globalView}, то есть обычный getXxxById.
+     */
+    public <T extends Task> T view(HttpExchange h, Type type, int id, IntFunction<T> globalView) {
+        return view(sessionKey(h), type, id, globalView);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T extends Task> T view(String key, Type type, int id, IntFunction<T> globalView) {
+        HistoryManager history = historyFor(key);
+        if (history == null) {
+            return globalView.apply(id);
+        }
+
+        Task task = manager.findById(id);
+        if (task == null || task.getType() != type) {
+            return null;
+        }
+        synchronized (history) {
+            history.add(task);
+        }
+        return (T) task;
+    }
+
+    /**
+     * История сессии запроса, последние {@code limit} просмотров; {@code null} — в запросе нет сессии.
+     * Удалённые с тех пор сущности выбрасываются, изменённые отдаются в текущем виде.
+     */
+    public List<Task> history(HttpExchange h, int limit) {
+        return history(sessionKey(h), limit);
+    }
+
+    List<Task> history(String key, int limit) {
+        HistoryManager history = historyFor(key);
+        if (history == null) {
+            return null;
+        }
+
+        synchronized (history) {
+            List<Task> viewed = history.getHistory(limit);
+            List<Task> result = new ArrayList<>(viewed.size());
+            for (Task task : viewed) {
+                Task current = manager.findById(task.getId());
+                if (current == null) {
+                    history.remove(task.getId());
+                } else {
+                    result.add(current);
+                }
+            }
+            return result;
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /** Есть ли в запросе непустой заголовок {@value #SESSION_HEADER}. */
+    public static boolean hasSession(HttpExchange h) {
+        return sessionKey(h) != null;
+    }
+
+    private static String sessionKey(HttpExchange h) {
+        String key = h.getRequestHeaders().getFirst(SESSION_HEADER);
+        return key == null || key.isBlank() ? null : key;
+    }
+
+    private HistoryManager historyFor(String key) {
+        if (key == null) {
+            return null;
+        }
+
+        long now = clock.getAsLong();
+        sweepIfDue(now);
+        Session session = sessions.get(key);
+        if (session == null) {
+            if (sessions.size() >= maxSessions) {
+                evictIdle(now);
+                if (sessions.size() >= maxSessions) {
+                    evictLeastRecent();
+                }
+            }
+            session = sessions.computeIfAbsent(key, k -> new Session(new InMemoryHistoryManager(policy), now));
+        }
+        session.lastAccess = now;
+        return session.history;
+    }
+
+    // Полный обход не чаще раза за idleTimeout, и делает его только один из конкурирующих потоков
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now - due >= 0 && nextSweep.compareAndSet(due, now + idleNanos)) {
+            evictIdle(now);
+        }
+    }
+
+    private void evictIdle(long now) {
+        sessions.values().removeIf(session -> now - session.lastAccess > idleNanos);
+    }
+
+    // Куча из batch самых давних: корень — самая свежая из них, её и вытесняет более давняя кандидатка
+    private void evictLeastRecent() {
+        int batch = Math.max(1, maxSessions / EVICT_BATCH_DIVISOR);
+        PriorityQueue<Candidate> oldest = new PriorityQueue<>(batch + 1,
+                (a, b) -> Long.signum(b.lastAccess - a.lastAccess));
+        for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+            oldest.add(new Candidate(entry.getKey(), entry.getValue()));
+            if (oldest.size() > batch) {
+                oldest.poll();
+            }
+        }
+        for (Candidate candidate : oldest) {
+            sessions.remove(candidate.key, candidate.session);
+        }
+    }
+}
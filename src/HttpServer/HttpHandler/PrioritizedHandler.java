@@ -3,11 +3,22 @@ package HttpServer.HttpHandler;
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import interfaces.TaskManager;
+import model.Task;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Список приоритетов с ETag по версии списка в менеджере: повторный запрос без изменений получает 304,
+ * а полный список сериализуется один раз на версию.
+ */
 public class PrioritizedHandler extends BaseHttpHandler {
     private final TaskManager manager;
+    private volatile CachedBody cached;
 
     public PrioritizedHandler(TaskManager manager, Gson gson) {
         super(gson);
@@ -18,12 +29,64 @@ public class PrioritizedHandler extends BaseHttpHandler {
     public void handle(HttpExchange h) throws IOException {
         try {
             if ("GET".equals(h.getRequestMethod()) && "/prioritized".equals(h.getRequestURI().getPath())) {
-                sendJson(h, 200, manager.getPrioritizedTasks());
+                Map<String, String> query = parseQuery(h);
+
+                // GET /prioritized?from=...&to=... — только задачи, пересекающиеся с окном
+                if (query.containsKey("from") || query.containsKey("to")) {
+                    LocalDateTime from = parseTime(query.get("from"));
+                    LocalDateTime to = parseTime(query.get("to"));
+                    String etag = etag("prioritized", manager.getPrioritizedVersion(), from + "/" + to);
+                    if (checkNotModified(h, etag)) {
+                        return;
+                    }
+                    sendJson(h, 200, manager.getPrioritizedTasks(from, to));
+                    return;
+                }
+
+                sendFullList(h);
                 return;
             }
             sendNotFound(h);
+        } catch (DateTimeParseException e) {
+            sendBadRequest(h, "Некорректное время: " + e.getParsedString());
         } catch (Exception e) {
             sendServerError(h, e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    private void sendFullList(HttpExchange h) throws IOException {
+        long version = manager.getPrioritizedVersion();
+        String etag = etag("prioritized", version, null);
+        if (isNotModified(h, etag)) {
+            sendNotModified(h, etag);
+            return;
+        }
+
+        CachedBody body = cached;
+        if (body == null || body.version != version) {
+            List<Task> tasks = manager.getPrioritizedTasks();
+            byte[] json = gson.toJson(tasks).getBytes(StandardCharsets.UTF_8);
+            if (manager.getPrioritizedVersion() != version) {
+                sendBytes(h, 200, json, null); // список изменился на ходу — не кэшируем и не метим версией
+                return;
+            }
+            body = new CachedBody(version, json);
+            cached = body;
+        }
+        sendBytes(h, 200, body.json, etag);
+    }
+
+    private static LocalDateTime parseTime(String value) {
+        return value == null || value.isBlank() ? null : LocalDateTime.parse(value);
+    }
+
+    private static final class CachedBody {
+        private final long version;
+        private final byte[] json;
+
+        CachedBody(long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+}
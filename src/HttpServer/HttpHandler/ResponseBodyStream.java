@@ -0,0 +1,129 @@
+package HttpServer.HttpHandler;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Тело ответа с отложенной отправкой заголовков.
+ * Первые {@code threshold} байт копятся в буфере: уместившийся в него ответ уходит как есть
+ * с известной длиной. Больший ответ уходит chunked и, если клиент принимает gzip, сжимается на лету —
+ * целиком в памяти он не собирается.
+ */
+final class ResponseBodyStream extends OutputStream {
+    private final HttpExchange h;
+    private final int code;
+    private final boolean gzip;
+    private final CompressionStats stats;
+
+    private byte[] buffer;
+    private int count;
+    private OutputStream out; // null, пока заголовки не отправлены
+    private CountingOutputStream wire; // только при gzip: сколько сжатых байт ушло в сеть
+    private long rawBytes;
+    private boolean closed;
+
+    ResponseBodyStream(HttpExchange h, int code, int threshold, boolean gzip, CompressionStats stats) {
+        this.h = h;
+        this.code = code;
+        this.gzip = gzip;
+        this.stats = stats;
+        this.buffer = new byte[threshold];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (out == null && count < buffer.length) {
+            buffer[count++] = (byte) b;
+            return;
+        }
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (out == null) {
+            if (count + len <= buffer.length) {
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+                return;
+            }
+            startStreaming();
+        }
+        rawBytes += len;
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // пока ответ в пределах порога, держим его в буфере — иначе пришлось бы отправить заголовки
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        if (out == null) {
+            h.sendResponseHeaders(code, count == 0 ? -1 : count);
+            if (count > 0) {
+                h.getResponseBody().write(buffer, 0, count);
+            }
+            h.getResponseBody().close();
+            stats.recordPlain();
+            return;
+        }
+
+        out.close();
+        if (wire != null) {
+            stats.recordCompressed(rawBytes, wire.count);
+        } else {
+            stats.recordPlain();
+        }
+    }
+
+    private void startStreaming() throws IOException {
+        if (gzip) {
+            h.getResponseHeaders().set("Content-Encoding", "gzip");
+            h.sendResponseHeaders(code, 0);
+            wire = new CountingOutputStream(h.getResponseBody());
+            // syncFlush: flush() отдаёт клиенту всё, что уже сжато, а не ждёт заполнения блока
+            out = new GZIPOutputStream(wire, 8192, true);
+        } else {
+            h.sendResponseHeaders(code, 0);
+            out = h.getResponseBody();
+        }
+
+        rawBytes += count;
+        out.write(buffer, 0, count);
+        buffer = null;
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
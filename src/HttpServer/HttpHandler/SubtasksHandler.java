@@ -2,17 +2,21 @@ package HttpServer.HttpHandler;
 
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
+import enums.Type;
 import interfaces.TaskManager;
 import model.Subtask;
 
 import java.io.IOException;
+import java.util.List;
 
 public class SubtasksHandler extends BaseHttpHandler {
     private final TaskManager manager;
+    private final HistorySessions sessions;
 
-    public SubtasksHandler(TaskManager manager, Gson gson) {
+    public SubtasksHandler(TaskManager manager, Gson gson, HistorySessions sessions) {
         super(gson);
         this.manager = manager;
+        this.sessions = sessions;
     }
 
     @Override
@@ -22,20 +26,46 @@ public class SubtasksHandler extends BaseHttpHandler {
             String path = h.getRequestURI().getPath();
 
             if ("GET".equals(method) && "/subtasks".equals(path)) {
-                sendJson(h, 200, manager.getAllSubtasks());
+                String etag = etag("subtasks", manager.getVersion(Type.SUBTASK), h.getRequestURI().getRawQuery());
+                if (checkNotModified(h, etag)) {
+                    return;
+                }
+                sendList(h, manager::getAllSubtasks, manager::getSubtasksPage, manager::getSubtasksByStatus);
+                return;
+            }
+
+            if ("POST".equals(method) && "/subtasks/batch".equals(path)) {
+                List<Subtask> batch = readBatch(h, Subtask[].class);
+                if (batch == null) {
+                    return;
+                }
+
+                List<Subtask> result = isCreateBatch(batch)
+                        ? manager.createSubtasks(batch)
+                        : manager.updateSubtasks(batch);
+                if (result == null) { // эпик или подзадача не найдены
+                    sendNotFound(h);
+                } else {
+                    sendJson(h, 201, result);
+                }
+                return;
+            }
+
+            if ("DELETE".equals(method) && "/subtasks/batch".equals(path)) {
+                sendJson(h, 200, manager.deleteSubtasks(parseIds(h)));
                 return;
             }
 
             if ("GET".equals(method) && path.startsWith("/subtasks/")) {
                 Integer id = parseIdFromPath(path, "/subtasks");
-                Subtask st = manager.getSubtaskById(id);
+                Subtask st = sessions.view(h, Type.SUBTASK, id, manager::getSubtaskById);
                 if (st == null) sendNotFound(h);
-                else sendJson(h, 200, st);
+                else if (!checkNotModified(h, etag("subtask", st.getVersion(), null))) sendJson(h, 200, st);
                 return;
             }
 
             if ("POST".equals(method) && "/subtasks".equals(path)) {
-                Subtask st = gson.fromJson(readBody(h), Subtask.class);
+                Subtask st = readJson(h, Subtask.class);
 
                 Subtask result;
                 if (st.getId() == 0) {
@@ -66,6 +96,8 @@ public class SubtasksHandler extends BaseHttpHandler {
 
             sendNotFound(h);
 
+        } catch (NumberFormatException e) {
+            sendBadRequest(h, "Некорректный id");
         } catch (IllegalArgumentException e) {
             sendHasIntersections(h, e.getMessage());
         } catch (Exception e) {
@@ -2,17 +2,21 @@ package HttpServer.HttpHandler;
 
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
+import enums.Type;
 import interfaces.TaskManager;
 import model.Task;
 
 import java.io.IOException;
+import java.util.List;
 
 public class TasksHandler extends BaseHttpHandler {
     private final TaskManager manager;
+    private final HistorySessions sessions;
 
-    public TasksHandler(TaskManager manager, Gson gson) {
+    public TasksHandler(TaskManager manager, Gson gson, HistorySessions sessions) {
         super(gson);
         this.manager = manager;
+        this.sessions = sessions;
     }
 
     @Override
@@ -23,17 +27,42 @@ public class TasksHandler extends BaseHttpHandler {
 
             // GET /tasks
             if ("GET".equals(method) && "/tasks".equals(path)) {
-                sendJson(h, 200, manager.getAllTasks());
+                if (checkNotModified(h, etag("tasks", manager.getVersion(Type.TASK), h.getRequestURI().getRawQuery()))) {
+                    return;
+                }
+                sendList(h, manager::getAllTasks, manager::getTasksPage, manager::getTasksByStatus);
+                return;
+            }
+
+            // POST /tasks/batch — все id = 0: создание, все id заданы: обновление
+            if ("POST".equals(method) && "/tasks/batch".equals(path)) {
+                List<Task> batch = readBatch(h, Task[].class);
+                if (batch == null) {
+                    return;
+                }
+
+                List<Task> result = isCreateBatch(batch) ? manager.createTasks(batch) : manager.updateTasks(batch);
+                if (result == null) {
+                    sendNotFound(h);
+                } else {
+                    sendJson(h, 201, result);
+                }
+                return;
+            }
+
+            // DELETE /tasks/batch?ids=1,2,3
+            if ("DELETE".equals(method) && "/tasks/batch".equals(path)) {
+                sendJson(h, 200, manager.deleteTasks(parseIds(h)));
                 return;
             }
 
             // GET /tasks/{id}
             if ("GET".equals(method) && path.startsWith("/tasks/")) {
                 Integer id = parseIdFromPath(path, "/tasks");
-                Task task = manager.getTaskById(id);
+                Task task = sessions.view(h, Type.TASK, id, manager::getTaskById);
                 if (task == null) {
                     sendNotFound(h);
-                } else {
+                } else if (!checkNotModified(h, etag("task", task.getVersion(), null))) {
                     sendJson(h, 200, task);
                 }
                 return;
@@ -41,8 +70,7 @@ public class TasksHandler extends BaseHttpHandler {
 
             // POST /tasks (create/update)
             if ("POST".equals(method) && "/tasks".equals(path)) {
-                String body = readBody(h);
-                Task task = gson.fromJson(body, Task.class);
+                Task task = readJson(h, Task.class);
 
                 Task result;
                 if (task.getId() == 0) {
@@ -72,6 +100,8 @@ public class TasksHandler extends BaseHttpHandler {
 
             sendNotFound(h);
 
+        } catch (NumberFormatException e) {
+            sendBadRequest(h, "Некорректный id");
         } catch (IllegalArgumentException e) {
             // пересечения по времени у вас кидаются IllegalArgumentException
             sendHasIntersections(h, e.getMessage());
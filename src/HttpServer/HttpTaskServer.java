@@ -4,48 +4,169 @@ import HttpServer.HttpHandler.*;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.sun.net.httpserver.HttpServer;
+import enums.ExecutorMode;
 import interfaces.TaskManager;
 import manager.Managers;
+import util.IntLinkedHashSet;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class HttpTaskServer {
-    private static final int PORT = 8080;
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_BACKLOG = 0; // 0 — значение по умолчанию системы
+    private static final int MAX_VIRTUAL_WAITERS = 10_000;
 
     private final HttpServer server;
     private final TaskManager manager;
+    private final ExecutorMode mode;
+    private final ExecutorService executor; // null в режиме SINGLE_THREAD
+    private final HistorySessions sessions; // истории клиентов с заголовком X-Session-Id
     private static final Gson gson = new GsonBuilder()
             .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .registerTypeAdapter(IntLinkedHashSet.class, new IntLinkedHashSetAdapter())
             .create();
 
 
     public HttpTaskServer(TaskManager manager) throws IOException {
+        this(manager, DEFAULT_PORT, DEFAULT_BACKLOG, ExecutorMode.SINGLE_THREAD, 0);
+    }
+
+    /**
+     * @param port     0 — взять свободный порт
+     * @param mode     SINGLE_THREAD — все запросы на потоке диспетчера (менеджер может быть непотокобезопасным),
+     *                 FIXED_POOL — пул из {@code poolSize} потоков, VIRTUAL — виртуальный поток на запрос (Java 21+)
+     * @param poolSize размер пула для FIXED_POOL, в остальных режимах не используется
+     */
+    public HttpTaskServer(TaskManager manager, int port, int backlog, ExecutorMode mode, int poolSize)
+            throws IOException {
         this.manager = manager;
+        this.mode = mode;
+        executor = createExecutor(mode, poolSize); // до открытия порта: неверный режим не должен оставлять его занятым
 
-        server = HttpServer.create(new InetSocketAddress(PORT), 0);
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), backlog);
+        } catch (IOException | RuntimeException e) {
+            if (executor != null) {
+                executor.shutdownNow(); // порт занят — пул больше не нужен
+            }
+            throw e;
+        }
 
-        server.createContext("/tasks", new TasksHandler(manager, gson));
-        server.createContext("/subtasks", new SubtasksHandler(manager, gson));
-        server.createContext("/epics", new EpicsHandler(manager, gson));
-        server.createContext("/history", new HistoryHandler(manager, gson));
+        sessions = new HistorySessions(manager);
+        server.createContext("/tasks", new TasksHandler(manager, gson, sessions));
+        server.createContext("/subtasks", new SubtasksHandler(manager, gson, sessions));
+        server.createContext("/epics", new EpicsHandler(manager, gson, sessions));
+        server.createContext("/history", new HistoryHandler(manager, gson, sessions));
         server.createContext("/prioritized", new PrioritizedHandler(manager, gson));
+        server.createContext("/changes", new ChangesHandler(manager, gson, maxChangeWaiters(mode, poolSize)));
+
+        server.setExecutor(executor);
     }
 
     public void start() {
-        System.out.println("HTTP server started on port " + PORT);
+        System.out.println("HTTP server started on port " + getPort() + " (" + mode + ")");
         server.start();
     }
 
     public void stop() {
         server.stop(0);
-        System.out.println("HTTP server stopped");
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        System.out.println("HTTP server stopped, " + getCompressionStats());
+    }
+
+    public HistorySessions getHistorySessions() {
+        return sessions;
+    }
+
+    /** Сколько ответов ушло в gzip и сколько байт это сэкономило (общие для всех серверов процесса). */
+    public CompressionStats getCompressionStats() {
+        return BaseHttpHandler.compressionStats();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Ждущие /changes держат поток: в пуле им отдаётся не больше половины потоков, чтобы CRUD не вставал;
+    // на потоке диспетчера ждать нельзя вовсе, виртуальные потоки дёшевы
+    private static int maxChangeWaiters(ExecutorMode mode, int poolSize) {
+        switch (mode) {
+            case FIXED_POOL:
+                return poolSize / 2;
+            case VIRTUAL:
+                return MAX_VIRTUAL_WAITERS;
+            default:
+                return 0;
+        }
     }
 
+    private static ExecutorService createExecutor(ExecutorMode mode, int poolSize) {
+        switch (mode) {
+            case SINGLE_THREAD:
+                return null;
+
+            case FIXED_POOL:
+                if (poolSize <= 0) {
+                    throw new IllegalArgumentException("poolSize must be > 0");
+                }
+                return Executors.newFixedThreadPool(poolSize, namedThreads("http-worker-"));
+
+            case VIRTUAL:
+                return newVirtualThreadExecutor();
+
+            default:
+                throw new IllegalArgumentException("Unknown executor mode: " + mode);
+        }
+    }
+
+    // Виртуальные потоки есть только с Java 21; проект собирается под 11, поэтому метод ищется через reflection.
+    // Молча подменять их неограниченным пулом платформенных потоков нельзя: под нагрузкой он исчерпает память.
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Режим VIRTUAL требует Java 21+, текущая версия "
+                    + Runtime.version().feature() + "; используйте FIXED_POOL", e);
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Настройки берутся из системных свойств:
+     * {@code -Dhttp.port=8080 -Dhttp.backlog=0 -Dhttp.executor=VIRTUAL -Dhttp.pool=16};
+     * сжатие ответов — {@code -Dhttp.gzip=false -Dhttp.gzip.minSize=1024}.
+     */
     public static void main(String[] args) throws IOException {
-        TaskManager manager = Managers.getDefault();
-        HttpTaskServer server = new HttpTaskServer(manager);
+        int port = Integer.getInteger("http.port", DEFAULT_PORT);
+        int backlog = Integer.getInteger("http.backlog", DEFAULT_BACKLOG);
+        ExecutorMode mode = ExecutorMode.valueOf(System.getProperty("http.executor", ExecutorMode.SINGLE_THREAD.name()));
+        int poolSize = Integer.getInteger("http.pool", Runtime.getRuntime().availableProcessors());
+
+        // в многопоточных режимах обычный InMemoryTaskManager небезопасен
+        TaskManager manager = mode == ExecutorMode.SINGLE_THREAD ? Managers.getDefault() : Managers.getConcurrent();
+        HttpTaskServer server = new HttpTaskServer(manager, port, backlog, mode, poolSize);
         server.start();
     }
-}
\ No newline at end of file
+}
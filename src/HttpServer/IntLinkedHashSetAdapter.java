@@ -0,0 +1,41 @@
+package HttpServer;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import util.IntLinkedHashSet;
+
+import java.io.IOException;
+
+// Множество id в JSON — обычный массив чисел, как раньше у List<Integer>
+public class IntLinkedHashSetAdapter extends TypeAdapter<IntLinkedHashSet> {
+
+    @Override
+    public void write(JsonWriter out, IntLinkedHashSet set) throws IOException {
+        if (set == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (int c = set.first(); c != IntLinkedHashSet.NONE; c = set.next(c)) {
+            out.value(set.valueAt(c));
+        }
+        out.endArray();
+    }
+
+    @Override
+    public IntLinkedHashSet read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        IntLinkedHashSet set = new IntLinkedHashSet();
+        in.beginArray();
+        while (in.hasNext()) {
+            set.add(in.nextInt());
+        }
+        in.endArray();
+        return set;
+    }
+}
@@ -0,0 +1,8 @@
+package enums;
+
+public enum Durability {
+    NONE,
+    SYNC_PER_OP,
+    SYNC_PER_BATCH,
+    PERIODIC_FSYNC
+}
@@ -0,0 +1,6 @@
+package enums;
+
+public enum EvictionPolicy {
+    LRU,
+    TIME_WINDOW
+}
@@ -0,0 +1,7 @@
+package enums;
+
+public enum ExecutorMode {
+    SINGLE_THREAD,
+    FIXED_POOL,
+    VIRTUAL
+}
@@ -8,4 +8,21 @@ public interface HistoryManager {
     void add(Task task);
     void remove(int id);
     List<Task> getHistory();
+
+    /** Последние {@code limit} просмотров, от давних к свежим, без обхода всей истории. */
+    List<Task> getHistory(int limit);
+
+    /**
+     * Вытесняет просмотры, вышедшие из окна политики. Чтения истории сами ничего не вытесняют,
+     * чтобы менеджер задач мог сдвинуть версию истории вместе с вытеснением.
+     * @return {@code true}, если история изменилась
+     */
+    default boolean expire() {
+        return false;
+    }
+
+    /** Можно ли вызывать методы из нескольких потоков без внешней синхронизации. */
+    default boolean isThreadSafe() {
+        return false;
+    }
 }
@@ -1,15 +1,25 @@
 package interfaces;
 
+import enums.Status;
+import enums.Type;
+import manager.ChangeLog;
 import model.Epic;
 import model.Subtask;
 import model.Task;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TaskManager {
     // ---------- TASK ----------
     List<Task> getAllTasks();
 
+    /**
+     * Страница задач: до {@code limit} элементов с id больше {@code afterId}, по возрастанию id.
+     * Для первой страницы {@code afterId} = 0, для следующей — id последнего элемента предыдущей.
+     */
+    List<Task> getTasksPage(int afterId, int limit);
+
     void deleteAllTasks();
 
     Task getTaskById(int id);
@@ -23,6 +33,9 @@ public interface TaskManager {
     // ---------- EPIC ----------
     List<Epic> getAllEpics();
 
+    /** Страница эпиков, см. {@link #getTasksPage}. */
+    List<Epic> getEpicsPage(int afterId, int limit);
+
     void deleteAllEpics();
 
     Epic getEpicById(int id);
@@ -36,6 +49,9 @@ public interface TaskManager {
     // ---------- SUBTASK ----------
     List<Subtask> getAllSubtasks();
 
+    /** Страница подзадач, см. {@link #getTasksPage}. */
+    List<Subtask> getSubtasksPage(int afterId, int limit);
+
     void deleteAllSubtasks();
 
     Subtask getSubtaskById(int id);
@@ -46,11 +62,83 @@ public interface TaskManager {
 
     Subtask deleteSubtaskById(int id);
 
+    // ---------- BATCH ----------
+    // Пачка применяется целиком или не применяется вовсе: пересечения по времени проверяются
+    // до изменений, включая пересечения между элементами самой пачки (IllegalArgumentException).
+
+    List<Task> createTasks(List<Task> tasks);
+
+    /** {@code null}, если какой-то задачи нет, — тогда ничего не меняется. */
+    List<Task> updateTasks(List<Task> tasks);
+
+    /** Удалённые задачи; отсутствующие id пропускаются. */
+    List<Task> deleteTasks(List<Integer> ids);
+
+    /** {@code null}, если какого-то эпика нет. Статус и время каждого затронутого эпика пересчитываются один раз. */
+    List<Subtask> createSubtasks(List<Subtask> subtasks);
+
+    /** {@code null}, если какой-то подзадачи нет или у неё сменился эпик. */
+    List<Subtask> updateSubtasks(List<Subtask> subtasks);
+
+    List<Subtask> deleteSubtasks(List<Integer> ids);
+
+    // ---------- STATUS ----------
+    /**
+     * Задачи со статусом {@code status} по индексу, без обхода всей коллекции:
+     * до {@code limit} элементов с id больше {@code afterId}, по возрастанию id (как {@link #getTasksPage}).
+     */
+    List<Task> getTasksByStatus(Status status, int afterId, int limit);
+
+    List<Epic> getEpicsByStatus(Status status, int afterId, int limit);
+
+    List<Subtask> getSubtasksByStatus(Status status, int afterId, int limit);
+
+    default List<Task> getTasksByStatus(Status status) {
+        return getTasksByStatus(status, 0, Integer.MAX_VALUE);
+    }
+
+    default List<Epic> getEpicsByStatus(Status status) {
+        return getEpicsByStatus(status, 0, Integer.MAX_VALUE);
+    }
+
+    default List<Subtask> getSubtasksByStatus(Status status) {
+        return getSubtasksByStatus(status, 0, Integer.MAX_VALUE);
+    }
+
+    int countByStatus(Type type, Status status);
+
     // ---------- EXTRA ----------
     List<Subtask> getSubtasksOfEpic(int epicId);
 
+    /** Задача, эпик или подзадача с таким id — без записи в историю просмотров; {@code null}, если нет. */
+    Task findById(int id);
+
+    // ---------- VERSIONS ----------
+    /** Версия коллекции: растёт при создании, изменении и удалении её элементов. Версия сущности — {@link Task#getVersion()}. */
+    long getVersion(Type type);
+
+    /** Версия истории просмотров: растёт при каждом просмотре и удалении из истории. */
+    long getHistoryVersion();
+
+    // ---------- CHANGES ----------
+    /** Лента создания, изменения и удаления сущностей; потокобезопасна без блокировок менеджера. */
+    ChangeLog getChangeLog();
+
     // ---------- HISTORY ----------
     List<Task> getHistory();
 
+    /** Последние {@code limit} просмотров, от давних к свежим. */
+    List<Task> getHistory(int limit);
+
+    /** Неизменяемый список; пока список приоритетов не менялся, возвращается один и тот же объект. */
     List<Task> getPrioritizedTasks();
+
+    /** Версия списка приоритетов: растёт при каждом его изменении. */
+    long getPrioritizedVersion();
+
+    /**
+     * Задачи и подзадачи, чьё время [startTime, endTime) пересекается с окном [from, to), по возрастанию startTime.
+     * {@code null} на месте границы — окно не ограничено с этой стороны.
+     */
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to);
 }
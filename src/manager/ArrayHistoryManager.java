@@ -0,0 +1,230 @@
+package manager;
+
+import interfaces.HistoryManager;
+import model.Task;
+import util.IntIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * История просмотров на параллельных массивах вместо узлов {@link model.Node}:
+ * запись — номер ячейки, соседи — индексы в {@code prev}/{@code next}, id → ячейка — {@link IntIntHashMap}.
+ * Освобождённые ячейки собираются в список свободных и переиспользуются, поэтому в установившемся режиме
+ * add/remove ничего не выделяют; память растёт только при увеличении массивов.
+ * Ограничения и вытеснение — как у {@link InMemoryHistoryManager}, по {@link HistoryPolicy}.
+ */
+public class ArrayHistoryManager implements HistoryManager {
+    private static final int NIL = -1;
+
+    private Task[] tasks;
+    private int[] prev;
+    private int[] next; // для свободных ячеек — следующая свободная
+    private long[] viewedAt; // только для TIME_WINDOW
+    private int[] bytes; // только при лимите по байтам
+
+    private final IntIntHashMap slotById;
+    private int head = NIL;
+    private int tail = NIL;
+    private int freeHead = NIL;
+    private int used; // сколько ячеек выдавалось хотя бы раз; дальше — ещё не тронутые
+    private int size;
+    private long totalBytes;
+
+    private final HistoryPolicy policy;
+    private final LongSupplier clock;
+    private final long windowMillis;
+
+    public ArrayHistoryManager() {
+        this(HistoryPolicy.unbounded());
+    }
+
+    public ArrayHistoryManager(HistoryPolicy policy) {
+        this(policy, 16);
+    }
+
+    public ArrayHistoryManager(HistoryPolicy policy, int initialCapacity) {
+        this(policy, initialCapacity, System::currentTimeMillis);
+    }
+
+    ArrayHistoryManager(HistoryPolicy policy, int initialCapacity, LongSupplier clock) {
+        int capacity = Math.max(initialCapacity, 4);
+        if (policy.getMaxEntries() > 0) {
+            capacity = Math.min(capacity, policy.getMaxEntries() + 1);
+        }
+        this.policy = policy;
+        this.clock = clock;
+        this.windowMillis = policy.isTimeWindow() ? policy.getWindow().toMillis() : 0;
+        this.slotById = new IntIntHashMap(capacity);
+        tasks = new Task[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+        if (windowMillis > 0) {
+            viewedAt = new long[capacity];
+        }
+        if (policy.getMaxBytes() > 0) {
+            bytes = new int[capacity];
+        }
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        long now = windowMillis > 0 ? clock.getAsLong() : 0;
+        int slot = slotById.get(task.getId(), NIL);
+        if (slot == NIL) {
+            slot = allocate();
+            slotById.put(task.getId(), slot);
+            size++;
+        } else {
+            // повторный просмотр: та же ячейка переезжает в хвост, ничего не выделяется
+            unlink(slot);
+            totalBytes -= bytesAt(slot);
+        }
+
+        tasks[slot] = task;
+        if (viewedAt != null) {
+            viewedAt[slot] = now;
+        }
+        if (bytes != null) {
+            bytes[slot] = HistoryPolicy.estimateBytes(task);
+            totalBytes += bytes[slot];
+        }
+        linkLast(slot);
+        evict(now);
+    }
+
+    @Override
+    public void remove(int id) {
+        int slot = slotById.remove(id, NIL);
+        if (slot != NIL) {
+            release(slot);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        List<Task> result = new ArrayList<>(size);
+        for (int slot = head; slot != NIL; slot = next[slot]) {
+            result.add(tasks[slot]);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        List<Task> result = new ArrayList<>(Math.min(Math.max(limit, 0), size));
+        for (int slot = tail; slot != NIL && result.size() < limit; slot = prev[slot]) {
+            result.add(tasks[slot]);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    @Override
+    public boolean expire() {
+        return windowMillis > 0 && expire(clock.getAsLong());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Оценка памяти записей истории; считается только при лимите по байтам. */
+    public long getEstimatedBytes() {
+        return totalBytes;
+    }
+
+    private int allocate() {
+        if (freeHead != NIL) {
+            int slot = freeHead;
+            freeHead = next[slot];
+            return slot;
+        }
+        if (used == tasks.length) {
+            grow();
+        }
+        return used++;
+    }
+
+    private void grow() {
+        int capacity = tasks.length + (tasks.length >> 1);
+        tasks = Arrays.copyOf(tasks, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        next = Arrays.copyOf(next, capacity);
+        if (viewedAt != null) {
+            viewedAt = Arrays.copyOf(viewedAt, capacity);
+        }
+        if (bytes != null) {
+            bytes = Arrays.copyOf(bytes, capacity);
+        }
+    }
+
+    private void release(int slot) {
+        unlink(slot);
+        totalBytes -= bytesAt(slot);
+        tasks[slot] = null; // не держим удалённую задачу от сборщика
+        next[slot] = freeHead;
+        freeHead = slot;
+        size--;
+    }
+
+    private void linkLast(int slot) {
+        prev[slot] = tail;
+        next[slot] = NIL;
+        if (tail == NIL) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    private void unlink(int slot) {
+        int p = prev[slot];
+        int n = next[slot];
+        if (p != NIL) {
+            next[p] = n;
+        } else {
+            head = n;
+        }
+        if (n != NIL) {
+            prev[n] = p;
+        } else {
+            tail = p;
+        }
+    }
+
+    private int bytesAt(int slot) {
+        return bytes == null ? 0 : bytes[slot];
+    }
+
+    private void evict(long now) {
+        int maxEntries = policy.getMaxEntries();
+        long maxBytes = policy.getMaxBytes();
+        while (head != NIL && ((maxEntries > 0 && size > maxEntries) || (maxBytes > 0 && totalBytes > maxBytes))) {
+            evictHead();
+        }
+        expire(now);
+    }
+
+    private boolean expire(long now) {
+        boolean expired = false;
+        while (windowMillis > 0 && head != NIL && now - viewedAt[head] > windowMillis) {
+            evictHead();
+            expired = true;
+        }
+        return expired;
+    }
+
+    private void evictHead() {
+        int slot = head;
+        slotById.remove(tasks[slot].getId(), NIL);
+        release(slot);
+    }
+}
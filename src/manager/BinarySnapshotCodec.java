@@ -0,0 +1,361 @@
+package manager;
+
+import enums.Status;
+import enums.Type;
+import exception.ManagerSaveException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Двоичный снимок для {@link FileBackedTaskManager}.
+ * <pre>
+ * "TKSB" | версия (1 байт) | число сущностей (varint) | сущности... | длина истории (varint) | id... | CRC32 (4 байта)
+ * сущность: тип (1 байт) | id (varint) | статус (1 байт) | имя | описание
+ *           [| epicId (varint) — у подзадачи] [| длительность (varlong) | начало — у задачи и подзадачи]
+ * </pre>
+ * Строки — длина в байтах UTF-8 (varint) и сами байты, поэтому запятые и переводы строк в них допустимы.
+ * Начало — zigzag varlong: минуты эпохи со сдвигом на 2 бита и тегом точности в младших битах;
+ * секунды и наносекунды, если они есть, тоже сохраняются. Эпики пишутся до подзадач, как и в CSV.
+ * Той же разметкой сущности пишутся в журнал ({@link TaskJournal#put}), поэтому BINARY и в режиме JOURNAL
+ * сохраняет любые строки.
+ */
+final class BinarySnapshotCodec {
+    private static final byte[] MAGIC = {'T', 'K', 'S', 'B'};
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int NO_TIME = 0;
+    private static final int TIME_MINUTES = 1;
+    private static final int TIME_SECONDS = 2;
+    private static final int TIME_NANOS = 3;
+
+    private static final Type[] TYPES = Type.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private BinarySnapshotCodec() {
+    }
+
+    /** Начинается ли файл с заголовка двоичного снимка; отсутствующий файл — не двоичный. */
+    static boolean isBinary(Path path) {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] head = in.readNBytes(MAGIC.length);
+            return Arrays.equals(head, MAGIC);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка загрузки файла: " + path, e);
+        }
+    }
+
+    // ---------- WRITE ----------
+    static void write(OutputStream out, List<Task> tasks, List<Epic> epics, List<Subtask> subtasks,
+                      List<Task> history) throws IOException {
+        Encoder encoder = new Encoder(out);
+        for (byte b : MAGIC) {
+            encoder.writeByte(b);
+        }
+        encoder.writeByte(VERSION);
+
+        encoder.writeVarInt(tasks.size() + epics.size() + subtasks.size());
+        for (Task task : tasks) {
+            writeEntity(encoder, task);
+        }
+        for (Epic epic : epics) {
+            writeEntity(encoder, epic);
+        }
+        for (Subtask subtask : subtasks) {
+            writeEntity(encoder, subtask);
+        }
+
+        encoder.writeVarInt(history.size());
+        for (Task task : history) {
+            encoder.writeVarInt(task.getId());
+        }
+        encoder.finish();
+    }
+
+    private static void writeEntity(Encoder encoder, Task task) throws IOException {
+        Type type = task.getType();
+        encoder.writeByte(type.ordinal());
+        encoder.writeVarInt(task.getId());
+        encoder.writeByte(task.getStatus().ordinal());
+        encoder.writeString(task.getName());
+        encoder.writeString(task.getDescription());
+
+        if (type == Type.EPIC) {
+            return; // время эпика вычисляется из подзадач
+        }
+        if (type == Type.SUBTASK) {
+            encoder.writeVarInt(((Subtask) task).getEpicId());
+        }
+        encoder.writeVarLong(zigzag(task.getDuration()));
+        writeTime(encoder, task.getStartTime());
+    }
+
+    private static void writeTime(Encoder encoder, LocalDateTime time) throws IOException {
+        if (time == null) {
+            encoder.writeVarLong(NO_TIME);
+            return;
+        }
+
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        if (time.getNano() != 0) {
+            encoder.writeVarLong(zigzag(seconds) << 2 | TIME_NANOS);
+            encoder.writeVarInt(time.getNano());
+        } else if (seconds % 60 != 0) {
+            encoder.writeVarLong(zigzag(seconds) << 2 | TIME_SECONDS);
+        } else {
+            encoder.writeVarLong(zigzag(seconds / 60) << 2 | TIME_MINUTES);
+        }
+    }
+
+    /**
+     * Одна сущность в разметке снимка, без заголовка и CRC: так её пишет журнал,
+     * чтобы запятые и переводы строк в полях не ломали записи.
+     */
+    static byte[] encodeEntity(Task task) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        try {
+            Encoder encoder = new Encoder(out, 256);
+            writeEntity(encoder, task);
+            encoder.drain();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // ByteArrayOutputStream не бросает
+        }
+        return out.toByteArray();
+    }
+
+    // ---------- READ ----------
+    /**
+     * Разбирает снимок целиком из памяти.
+     * @param onEntity получает сущности в порядке записи: задачи, эпики, подзадачи
+     * @param onHistory получает id истории от старых просмотров к новым
+     */
+    static void read(byte[] data, Consumer<Task> onEntity, IntConsumer onHistory) {
+        if (data.length < MAGIC.length + 1 + 4) {
+            throw new ManagerSaveException("Двоичный снимок повреждён: слишком короткий файл", null);
+        }
+
+        int bodyLength = data.length - 4;
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, bodyLength);
+        int stored = (data[bodyLength] & 0xFF) << 24 | (data[bodyLength + 1] & 0xFF) << 16
+                | (data[bodyLength + 2] & 0xFF) << 8 | (data[bodyLength + 3] & 0xFF);
+        if ((int) crc.getValue() != stored) {
+            throw new ManagerSaveException("Двоичный снимок повреждён: не сходится CRC32", null);
+        }
+
+        Decoder decoder = new Decoder(data, MAGIC.length, bodyLength);
+        int version = decoder.readByte();
+        if (version != VERSION) {
+            throw new ManagerSaveException("Неподдерживаемая версия двоичного снимка: " + version, null);
+        }
+
+        int count = decoder.readVarInt();
+        for (int i = 0; i < count; i++) {
+            onEntity.accept(readEntity(decoder));
+        }
+
+        int historySize = decoder.readVarInt();
+        for (int i = 0; i < historySize; i++) {
+            onHistory.accept(decoder.readVarInt());
+        }
+    }
+
+    static Task decodeEntity(byte[] data) {
+        Decoder decoder = new Decoder(data, 0, data.length);
+        Task task = readEntity(decoder);
+        if (decoder.position != data.length) {
+            throw new ManagerSaveException("Двоичная запись сущности повреждена: лишние байты", null);
+        }
+        return task;
+    }
+
+    private static Task readEntity(Decoder decoder) {
+        Type type = TYPES[decoder.readByte()];
+        int id = decoder.readVarInt();
+        Status status = STATUSES[decoder.readByte()];
+        String name = decoder.readString();
+        String description = decoder.readString();
+
+        Task task;
+        switch (type) {
+            case EPIC:
+                task = new Epic(name, description);
+                task.setStatus(status);
+                break;
+
+            case SUBTASK: {
+                int epicId = decoder.readVarInt();
+                long duration = unzigzag(decoder.readVarLong());
+                task = new Subtask(name, description, status, epicId, duration, readTime(decoder));
+                break;
+            }
+
+            case TASK: {
+                long duration = unzigzag(decoder.readVarLong());
+                task = new Task(name, description, status, duration, readTime(decoder));
+                break;
+            }
+
+            default:
+                throw new IllegalArgumentException("Unknown type: " + type);
+        }
+
+        task.setId(id);
+        return task;
+    }
+
+    private static LocalDateTime readTime(Decoder decoder) {
+        long raw = decoder.readVarLong();
+        int tag = (int) (raw & 3);
+        long value = unzigzag(raw >>> 2);
+
+        switch (tag) {
+            case NO_TIME:
+                return null;
+            case TIME_MINUTES:
+                return LocalDateTime.ofEpochSecond(value * 60, 0, ZoneOffset.UTC);
+            case TIME_SECONDS:
+                return LocalDateTime.ofEpochSecond(value, 0, ZoneOffset.UTC);
+            default:
+                return LocalDateTime.ofEpochSecond(value, decoder.readVarInt(), ZoneOffset.UTC);
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // ---------- BUFFERS ----------
+    // Пишет через собственный буфер и считает CRC32 блоками, а не по байту
+    private static final class Encoder {
+        private final OutputStream out;
+        private final byte[] buffer;
+        private final CRC32 crc = new CRC32();
+        private int position;
+
+        Encoder(OutputStream out) {
+            this(out, BUFFER_SIZE);
+        }
+
+        Encoder(OutputStream out, int bufferSize) {
+            this.out = out;
+            this.buffer = new byte[bufferSize];
+        }
+
+        void writeByte(int value) throws IOException {
+            if (position == buffer.length) {
+                drain();
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarInt(int value) throws IOException {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        void writeString(String value) throws IOException {
+            byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            if (bytes.length > buffer.length - position) {
+                drain();
+            }
+            if (bytes.length > buffer.length) {
+                crc.update(bytes);
+                out.write(bytes);
+                return;
+            }
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void finish() throws IOException {
+            drain();
+            int value = (int) crc.getValue();
+            out.write(new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value});
+            out.flush();
+        }
+
+        private void drain() throws IOException {
+            crc.update(buffer, 0, position);
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private static final class Decoder {
+        private final byte[] data;
+        private final int limit;
+        private int position;
+
+        Decoder(byte[] data, int position, int limit) {
+            this.data = data;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        int readByte() {
+            if (position >= limit) {
+                throw new ManagerSaveException("Двоичный снимок повреждён: неожиданный конец данных", null);
+            }
+            return data[position++] & 0xFF;
+        }
+
+        int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new ManagerSaveException("Двоичный снимок повреждён: слишком длинное число", null);
+        }
+
+        String readString() {
+            int length = readVarInt();
+            if (length < 0 || length > limit - position) {
+                throw new ManagerSaveException("Двоичный снимок повреждён: неверная длина строки", null);
+            }
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
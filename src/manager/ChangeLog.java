@@ -0,0 +1,105 @@
+package manager;
+
+import enums.ChangeType;
+import model.Task;
+import model.TaskChange;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Лента изменений менеджера: последние {@code capacity} событий в кольцевом буфере.
+ * Номера событий идут подряд с 1; клиент запрашивает всё, что после последнего увиденного номера.
+ * Потокобезопасна сама по себе: читатели не берут блокировку менеджера и могут ждать новых событий.
+ */
+public final class ChangeLog {
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final TaskChange[] ring;
+    // Номера начинаются заново после перезапуска; по эпохе клиент отличает новую ленту от старой
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 1);
+    private long lastSeq; // номер последнего события, 0 — событий не было
+    private long firstSeq = 1; // самый старый номер, который ещё лежит в буфере
+
+    public ChangeLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ChangeLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity должна быть больше нуля");
+        }
+        ring = new TaskChange[capacity];
+    }
+
+    /**
+     * Публикует событие. Сущность копируется здесь же, пока вызывающий держит блокировку менеджера:
+     * читатели ленты сериализуют событие позже и без неё.
+     */
+    public void append(ChangeType change, Task task) {
+        Task snapshot = change == ChangeType.DELETED ? null : task.copy();
+        synchronized (this) {
+            long seq = ++lastSeq;
+            ring[slot(seq)] = new TaskChange(seq, change, task.getType(), task.getId(), snapshot);
+            if (seq - firstSeq >= ring.length) {
+                firstSeq = seq - ring.length + 1;
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * До {@code limit} событий с номером больше {@code since}, по возрастанию номера.
+     * @return {@code null}, если часть событий после {@code since} уже вытеснена
+     *         или {@code since} из будущего (лента другого запуска) — клиенту нужно перечитать коллекции целиком
+     */
+    public synchronized List<TaskChange> since(long since, int limit) {
+        if (since < firstSeq - 1 || since > lastSeq) {
+            return null;
+        }
+        int count = (int) Math.min(limit, lastSeq - since);
+        List<TaskChange> result = new ArrayList<>(count);
+        for (long seq = since + 1; seq <= since + count; seq++) {
+            result.add(ring[slot(seq)]);
+        }
+        return result;
+    }
+
+    /** Как {@link #since}, но если новых событий нет, ждёт их не дольше {@code timeoutMillis}. */
+    public synchronized List<TaskChange> await(long since, int limit, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (lastSeq == since) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                break;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, left);
+        }
+        return since(since, limit);
+    }
+
+    /** Забывает накопленные события, нумерация продолжается: после загрузки из файла лента начинается с чистого листа. */
+    public synchronized void clear() {
+        Arrays.fill(ring, null);
+        firstSeq = lastSeq + 1;
+    }
+
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    private int slot(long seq) {
+        return (int) (seq % ring.length);
+    }
+}
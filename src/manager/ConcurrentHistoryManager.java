@@ -0,0 +1,166 @@
+package manager;
+
+import interfaces.HistoryManager;
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Потокобезопасная история для многопоточного сервера: {@link #add} не берёт блокировок.
+ * Просмотр получает сквозной номер и ложится в один из неблокирующих буферов-полос (полоса выбирается по потоку),
+ * а в упорядоченную историю без повторов — обычный {@link HistoryManager} — буферы сливаются лениво:
+ * при чтении, удалении или когда полоса переполнилась.
+ * <p>
+ * Удаление сначала сливает буферы, поэтому завершившийся до него просмотр не воскресит удалённую задачу.
+ * Просмотры, которые ещё выполнялись во время слияния, могут встать после более поздних —
+ * они шли одновременно, и любой порядок между ними допустим.
+ */
+public class ConcurrentHistoryManager implements HistoryManager {
+    private static final int DEFAULT_DRAIN_THRESHOLD = 1024;
+
+    private final HistoryManager history; // только под drainLock
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final Stripe[] stripes;
+    private final int mask;
+    private final int drainThreshold;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private static final class View {
+        final long seq;
+        final Task task;
+
+        View(long seq, Task task) {
+            this.seq = seq;
+            this.task = task;
+        }
+    }
+
+    private static final class Stripe {
+        final ConcurrentLinkedQueue<View> views = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pending = new AtomicInteger();
+    }
+
+    public ConcurrentHistoryManager() {
+        this(new ArrayHistoryManager());
+    }
+
+    /** @param history упорядоченная история, в которую сливаются буферы; сама может быть непотокобезопасной */
+    public ConcurrentHistoryManager(HistoryManager history) {
+        this(history, Runtime.getRuntime().availableProcessors() * 2, DEFAULT_DRAIN_THRESHOLD);
+    }
+
+    ConcurrentHistoryManager(HistoryManager history, int stripes, int drainThreshold) {
+        int count = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.history = history;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.mask = count - 1;
+        this.drainThreshold = drainThreshold;
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        Stripe stripe = stripes[stripeIndex()];
+        stripe.views.add(new View(sequence.getAndIncrement(), task));
+
+        // Переполненную полосу сливает тот, кто её переполнил, — если слияние уже не идёт в другом потоке
+        if (stripe.pending.incrementAndGet() >= drainThreshold && drainLock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        drainLock.lock();
+        try {
+            drain();
+            history.remove(id);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        drainLock.lock();
+        try {
+            drain();
+            return history.getHistory();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        drainLock.lock();
+        try {
+            drain();
+            return history.getHistory(limit);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean expire() {
+        drainLock.lock();
+        try {
+            return history.expire();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    // Вызывается под drainLock
+    private void drain() {
+        List<View> batch = new ArrayList<>();
+        boolean ordered = true;
+        long last = Long.MIN_VALUE;
+        for (Stripe stripe : stripes) {
+            int drained = 0;
+            View view;
+            while ((view = stripe.views.poll()) != null) {
+                ordered &= view.seq > last;
+                last = view.seq;
+                batch.add(view);
+                drained++;
+            }
+            if (drained > 0) {
+                stripe.pending.addAndGet(-drained);
+            }
+        }
+        if (!ordered) {
+            batch.sort(Comparator.comparingLong(v -> v.seq));
+        }
+        for (View view : batch) {
+            history.add(view.task);
+        }
+    }
+
+    private int stripeIndex() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,320 @@
+package manager;
+
+import enums.Status;
+import enums.Type;
+import interfaces.HistoryManager;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Потокобезопасная версия {@link InMemoryTaskManager} для многопоточного HttpTaskServer.
+ * Чтения идут параллельно под read-lock, изменения — под write-lock.
+ * История при чтении меняется под отдельным монитором, чтобы не брать write-lock на каждый GET;
+ * потокобезопасная история ({@link ConcurrentHistoryManager}) обходится и без него.
+ */
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicInteger ids = new AtomicInteger(1);
+    private final boolean historyThreadSafe;
+    // Просмотры и вытеснения в потокобезопасной истории считаются здесь: поле версии истории в базовом классе не атомарно
+    private final LongAdder unlockedViews = new LongAdder();
+
+    public ConcurrentTaskManager(HistoryManager historyManager) {
+        super(historyManager);
+        this.historyThreadSafe = historyManager.isThreadSafe();
+    }
+
+    // ---------- ID ----------
+    @Override
+    protected int generateId() {
+        return ids.getAndIncrement();
+    }
+
+    // ---------- TASK ----------
+    @Override
+    public List<Task> getAllTasks() {
+        return read(super::getAllTasks);
+    }
+
+    @Override
+    public List<Task> getTasksPage(int afterId, int limit) {
+        return read(() -> super.getTasksPage(afterId, limit));
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        write(() -> {
+            super.deleteAllTasks();
+            return null;
+        });
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return read(() -> recordView(tasks.get(id)));
+    }
+
+    @Override
+    public Task createTask(Task task) {
+        return write(() -> super.createTask(task));
+    }
+
+    @Override
+    public Task updateTask(Task task) {
+        return write(() -> super.updateTask(task));
+    }
+
+    @Override
+    public Task deleteTaskById(int id) {
+        return write(() -> super.deleteTaskById(id));
+    }
+
+    // ---------- EPIC ----------
+    @Override
+    public List<Epic> getAllEpics() {
+        return read(super::getAllEpics);
+    }
+
+    @Override
+    public List<Epic> getEpicsPage(int afterId, int limit) {
+        return read(() -> super.getEpicsPage(afterId, limit));
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        write(() -> {
+            super.deleteAllEpics();
+            return null;
+        });
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        return read(() -> recordView(epics.get(id)));
+    }
+
+    @Override
+    public Epic createEpic(Epic epic) {
+        return write(() -> super.createEpic(epic));
+    }
+
+    @Override
+    public Epic updateEpic(Epic epic) {
+        return write(() -> super.updateEpic(epic));
+    }
+
+    @Override
+    public Epic deleteEpicById(int id) {
+        return write(() -> super.deleteEpicById(id));
+    }
+
+    // ---------- SUBTASK ----------
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return read(super::getAllSubtasks);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksPage(int afterId, int limit) {
+        return read(() -> super.getSubtasksPage(afterId, limit));
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        write(() -> {
+            super.deleteAllSubtasks();
+            return null;
+        });
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        return read(() -> recordView(subtasks.get(id)));
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask subtask) {
+        return write(() -> super.createSubtask(subtask));
+    }
+
+    @Override
+    public Subtask updateSubtask(Subtask subtask) {
+        return write(() -> super.updateSubtask(subtask));
+    }
+
+    @Override
+    public Subtask deleteSubtaskById(int id) {
+        return write(() -> super.deleteSubtaskById(id));
+    }
+
+    // ---------- BATCH ----------
+    @Override
+    public List<Task> createTasks(List<Task> batch) {
+        return write(() -> super.createTasks(batch));
+    }
+
+    @Override
+    public List<Task> updateTasks(List<Task> batch) {
+        return write(() -> super.updateTasks(batch));
+    }
+
+    @Override
+    public List<Task> deleteTasks(List<Integer> ids) {
+        return write(() -> super.deleteTasks(ids));
+    }
+
+    @Override
+    public List<Subtask> createSubtasks(List<Subtask> batch) {
+        return write(() -> super.createSubtasks(batch));
+    }
+
+    @Override
+    public List<Subtask> updateSubtasks(List<Subtask> batch) {
+        return write(() -> super.updateSubtasks(batch));
+    }
+
+    @Override
+    public List<Subtask> deleteSubtasks(List<Integer> ids) {
+        return write(() -> super.deleteSubtasks(ids));
+    }
+
+    // ---------- STATUS ----------
+    @Override
+    public List<Task> getTasksByStatus(Status status, int afterId, int limit) {
+        return read(() -> super.getTasksByStatus(status, afterId, limit));
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(Status status, int afterId, int limit) {
+        return read(() -> super.getEpicsByStatus(status, afterId, limit));
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(Status status, int afterId, int limit) {
+        return read(() -> super.getSubtasksByStatus(status, afterId, limit));
+    }
+
+    @Override
+    public int countByStatus(Type type, Status status) {
+        return read(() -> super.countByStatus(type, status));
+    }
+
+    // ---------- EXTRA ----------
+    @Override
+    public List<Subtask> getSubtasksOfEpic(int epicId) {
+        return read(() -> super.getSubtasksOfEpic(epicId));
+    }
+
+    @Override
+    public Task findById(int id) {
+        return read(() -> super.findById(id));
+    }
+
+    // ---------- VERSIONS ----------
+    @Override
+    public long getVersion(Type type) {
+        return read(() -> super.getVersion(type));
+    }
+
+    // Версия истории меняется и под read-lock — при просмотрах: под тем же монитором или в unlockedViews
+    @Override
+    public long getHistoryVersion() {
+        return read(() -> withHistory(() -> super.getHistoryVersion() + unlockedViews.sum()));
+    }
+
+    // ---------- CHANGES ----------
+    // Лента синхронизирована сама: ожидание событий не должно держать read-lock и тормозить писателей
+    @Override
+    public ChangeLog getChangeLog() {
+        return changeLog;
+    }
+
+    // ---------- HISTORY ----------
+    @Override
+    public List<Task> getHistory() {
+        return read(() -> withHistory(super::getHistory));
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        return read(() -> withHistory(() -> super.getHistory(limit)));
+    }
+
+    // Снимок собирается под read-lock: версия при этом не меняется, а гонка двух читателей лишь соберёт его дважды
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return read(super::getPrioritizedTasks);
+    }
+
+    @Override
+    public long getPrioritizedVersion() {
+        return read(super::getPrioritizedVersion);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return read(() -> super.getPrioritizedTasks(from, to));
+    }
+
+    // ---------- LOCKING ----------
+    // Вызывается под read-lock: удаления из истории идут только под write-lock и с ним не пересекаются
+    private <T extends Task> T recordView(T task) {
+        if (historyThreadSafe) {
+            if (task != null) {
+                historyManager.add(task);
+                unlockedViews.increment();
+            }
+            return task;
+        }
+        synchronized (historyManager) {
+            addToHistory(task);
+        }
+        return task;
+    }
+
+    // Вызывается под read-lock внутри withHistory; вытеснение из потокобезопасной истории считается как просмотр
+    @Override
+    protected void expireHistory() {
+        if (!historyThreadSafe) {
+            super.expireHistory();
+        } else if (historyManager.expire()) {
+            unlockedViews.increment();
+        }
+    }
+
+    private <T> T withHistory(Supplier<T> action) {
+        if (historyThreadSafe) {
+            return action.get();
+        }
+        synchronized (historyManager) {
+            return action.get();
+        }
+    }
+
+    private <T> T read(Supplier<T> action) {
+        return locked(lock.readLock(), action);
+    }
+
+    private <T> T write(Supplier<T> action) {
+        return locked(lock.writeLock(), action);
+    }
+
+    private static <T> T locked(Lock lock, Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package manager;
 
+import enums.Durability;
+import enums.PersistenceMode;
+import enums.SnapshotFormat;
 import enums.Status;
 import enums.Type;
 import exception.ManagerSaveException;
@@ -9,161 +12,525 @@ import model.Subtask;
 import model.Task;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Все изменяющие методы и сброс на диск синхронизированы на менеджере:
+ * в режиме write-behind снимок пишет фоновый поток.
+ */
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    static final String HEADER = "id,type,name,status,description,epic,duration,startTime,endTime";
+    public static final int DEFAULT_SNAPSHOT_EVERY = 1000;
+    private static final int HISTORY_COMPACT_EVERY = 10_000;
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
-    private static final String HEADER = "id,type,name,status,description,epic,duration,startTime,endTime";
     private final Path path;
+    private final TaskJournal journal; // null в режиме SNAPSHOT
+    private final TaskJournal historyLog; // просмотры пишутся отдельно от сущностей
+    private final int snapshotEvery;
+    private final FlushPolicy flushPolicy;
+    private final SnapshotFormat format;
+    private final ScheduledExecutorService flusher;
+    private boolean replaying;
+    private int pending; // изменения, ещё не сброшенные на диск
+    private ManagerSaveException flushError;
 
     public FileBackedTaskManager(Path path) {
+        this(path, PersistenceMode.SNAPSHOT);
+    }
+
+    public FileBackedTaskManager(Path path, PersistenceMode mode) {
+        this(path, mode, DEFAULT_SNAPSHOT_EVERY);
+    }
+
+    /**
+     * @param snapshotEvery в режиме JOURNAL — после скольких записей журнал сворачивается в снимок
+     */
+    public FileBackedTaskManager(Path path, PersistenceMode mode, int snapshotEvery) {
+        this(path, mode, snapshotEvery, FlushPolicy.writeThrough());
+    }
+
+    public FileBackedTaskManager(Path path, PersistenceMode mode, FlushPolicy flushPolicy) {
+        this(path, mode, DEFAULT_SNAPSHOT_EVERY, flushPolicy);
+    }
+
+    public FileBackedTaskManager(Path path, PersistenceMode mode, int snapshotEvery, FlushPolicy flushPolicy) {
+        this(path, mode, snapshotEvery, flushPolicy, SnapshotFormat.CSV);
+    }
+
+    /**
+     * @param format формат, в котором пишется снимок; при загрузке формат файла определяется по заголовку
+     */
+    public FileBackedTaskManager(Path path, PersistenceMode mode, int snapshotEvery, FlushPolicy flushPolicy,
+                                 SnapshotFormat format) {
         super(Managers.getDefaultHistory());
+        if (snapshotEvery <= 0) {
+            throw new IllegalArgumentException("snapshotEvery must be > 0");
+        }
         this.path = path;
+        this.journal = mode == PersistenceMode.JOURNAL ? new TaskJournal(TaskJournal.pathFor(path)) : null;
+        this.historyLog = new TaskJournal(TaskJournal.historyPathFor(path));
+        this.snapshotEvery = snapshotEvery;
+        this.flushPolicy = flushPolicy;
+        this.format = format;
+        this.flusher = flushPolicy.isWriteBehind() ? startFlusher(flushPolicy.getInterval()) : null;
     }
 
     // ---------- TASK ----------
     @Override
-    public void deleteAllTasks() {
+    public synchronized void deleteAllTasks() {
         super.deleteAllTasks();
-        save();
+        persist(TaskJournal.clear(Type.TASK));
     }
 
     @Override
-    public Task getTaskById(int id) {
+    public synchronized Task getTaskById(int id) {
         Task task = super.getTaskById(id);
-        save(); // просмотр меняет историю
+        persistView(task); // просмотр меняет историю
         return task;
     }
 
     @Override
-    public Task createTask(Task task) {
+    public synchronized Task createTask(Task task) {
         Task created = super.createTask(task);
-        save();
+        persist(TaskJournal.put(created));
         return created;
     }
 
     @Override
-    public Task updateTask(Task task) {
+    public synchronized Task updateTask(Task task) {
         Task updated = super.updateTask(task);
         if (updated != null) {
-            save();
+            persist(TaskJournal.put(updated));
         }
         return updated;
     }
 
     @Override
-    public Task deleteTaskById(int id) {
+    public synchronized Task deleteTaskById(int id) {
         Task removed = super.deleteTaskById(id);
-        save();
+        persist(TaskJournal.delete(id));
         return removed;
     }
 
     // ---------- EPIC ----------
     @Override
-    public void deleteAllEpics() {
+    public synchronized void deleteAllEpics() {
         super.deleteAllEpics();
-        save();
+        persist(TaskJournal.clear(Type.EPIC));
     }
 
     @Override
-    public Epic getEpicById(int id) {
+    public synchronized Epic getEpicById(int id) {
         Epic epic = super.getEpicById(id);
-        save();
+        persistView(epic);
         return epic;
     }
 
     @Override
-    public Epic createEpic(Epic epic) {
+    public synchronized Epic createEpic(Epic epic) {
         Epic created = super.createEpic(epic);
-        save();
+        persist(TaskJournal.put(created));
         return created;
     }
 
     @Override
-    public Epic updateEpic(Epic epic) {
+    public synchronized Epic updateEpic(Epic epic) {
         Epic updated = super.updateEpic(epic);
         if (updated != null) {
-            save();
+            persist(TaskJournal.put(updated));
         }
         return updated;
     }
 
     @Override
-    public Epic deleteEpicById(int id) {
+    public synchronized Epic deleteEpicById(int id) {
         Epic removed = super.deleteEpicById(id);
-        save();
+        persist(TaskJournal.delete(id));
         return removed;
     }
 
     // ---------- SUBTASK ----------
     @Override
-    public void deleteAllSubtasks() {
+    public synchronized void deleteAllSubtasks() {
         super.deleteAllSubtasks();
-        save();
+        persist(TaskJournal.clear(Type.SUBTASK));
     }
 
     @Override
-    public Subtask getSubtaskById(int id) {
+    public synchronized Subtask getSubtaskById(int id) {
         Subtask subtask = super.getSubtaskById(id);
-        save();
+        persistView(subtask);
         return subtask;
     }
 
     @Override
-    public Subtask createSubtask(Subtask subtask) {
+    public synchronized Subtask createSubtask(Subtask subtask) {
         Subtask created = super.createSubtask(subtask);
-        save();
+        if (created != null) {
+            persist(TaskJournal.put(created));
+        }
         return created;
     }
 
     @Override
-    public Subtask updateSubtask(Subtask subtask) {
+    public synchronized Subtask updateSubtask(Subtask subtask) {
         Subtask updated = super.updateSubtask(subtask);
         if (updated != null) {
-            save();
+            persist(TaskJournal.put(updated));
         }
         return updated;
     }
 
     @Override
-    public Subtask deleteSubtaskById(int id) {
+    public synchronized Subtask deleteSubtaskById(int id) {
         Subtask removed = super.deleteSubtaskById(id);
-        save();
+        persist(TaskJournal.delete(id));
+        return removed;
+    }
+
+    // ---------- BATCH ----------
+    // Вся пачка уходит на диск одним сбросом: одна запись снимка или один flush журнала
+    @Override
+    public synchronized List<Task> createTasks(List<Task> batch) {
+        return persistPuts(super.createTasks(batch));
+    }
+
+    @Override
+    public synchronized List<Task> updateTasks(List<Task> batch) {
+        return persistPuts(super.updateTasks(batch));
+    }
+
+    @Override
+    public synchronized List<Task> deleteTasks(List<Integer> ids) {
+        return persistDeletes(super.deleteTasks(ids));
+    }
+
+    @Override
+    public synchronized List<Subtask> createSubtasks(List<Subtask> batch) {
+        return persistPuts(super.createSubtasks(batch));
+    }
+
+    @Override
+    public synchronized List<Subtask> updateSubtasks(List<Subtask> batch) {
+        return persistPuts(super.updateSubtasks(batch));
+    }
+
+    @Override
+    public synchronized List<Subtask> deleteSubtasks(List<Integer> ids) {
+        return persistDeletes(super.deleteSubtasks(ids));
+    }
+
+    private <T extends Task> List<T> persistPuts(List<T> changed) {
+        if (changed != null && !changed.isEmpty()) {
+            List<String> records = new ArrayList<>(changed.size());
+            for (T task : changed) {
+                records.add(TaskJournal.put(task));
+            }
+            persist(records);
+        }
+        return changed;
+    }
+
+    private <T extends Task> List<T> persistDeletes(List<T> removed) {
+        if (!removed.isEmpty()) {
+            List<String> records = new ArrayList<>(removed.size());
+            for (T task : removed) {
+                records.add(TaskJournal.delete(task.getId()));
+            }
+            persist(records);
+        }
         return removed;
     }
 
     // ---------- SAVE / LOAD ----------
-    private void save() {
-        try (Writer writer = new FileWriter(path.toFile())) {
-            StringBuilder sb = new StringBuilder();
-            sb.append(HEADER).append("\n");
+    private void persist(String record) {
+        persist(List.of(record));
+    }
+
+    private void persist(List<String> records) {
+        if (replaying) {
+            return;
+        }
+        rethrowFlushError();
 
-            for (Task task : getAllTasks()) {
-                sb.append(task).append("\n");
+        if (journal != null) {
+            for (String record : records) {
+                journal.append(record);
             }
-            for (Epic epic : getAllEpics()) {
-                sb.append(epic).append("\n");
+        }
+        pending += records.size();
+
+        if (!flushPolicy.isWriteBehind() || pending >= flushPolicy.getBatchSize()) {
+            flush();
+        }
+    }
+
+    // Просмотр не трогает данные задач: только дописывает строку в журнал истории
+    private void persistView(Task task) {
+        if (task == null || replaying) {
+            return;
+        }
+
+        historyLog.append(TaskJournal.view(task.getId()));
+        if (historyLog.size() >= HISTORY_COMPACT_EVERY) {
+            compactHistory();
+        } else if (!flushPolicy.isWriteBehind()) {
+            historyLog.flush(false);
+        }
+    }
+
+    private void compactHistory() {
+        List<Task> history = getHistory();
+        List<String> records = new ArrayList<>(history.size());
+        for (Task task : history) {
+            records.add(TaskJournal.view(task.getId()));
+        }
+        historyLog.rewrite(records, false);
+    }
+
+    /** Сбрасывает накопленные изменения на диск (одна запись снимка или один flush журнала). */
+    public synchronized void flush() {
+        boolean fsync = flushPolicy.syncOnFlush();
+        historyLog.flush(fsync);
+        if (pending == 0) {
+            return;
+        }
+
+        if (journal == null) {
+            save(fsync);
+        } else {
+            journal.flush(fsync);
+            if (journal.size() >= snapshotEvery) {
+                snapshot();
             }
-            for (Subtask subtask : getAllSubtasks()) {
-                sb.append(subtask).append("\n");
+        }
+        pending = 0;
+    }
+
+    /**
+     * Сворачивает журнал: пишет полный снимок и очищает журнал.
+     * Если сбой случится между этими шагами, повторное проигрывание журнала поверх
+     * нового снимка даст то же состояние — все записи журнала идемпотентны.
+     */
+    public synchronized void snapshot() {
+        save(flushPolicy.getDurability() != Durability.NONE);
+        if (journal != null) {
+            journal.reset();
+        }
+    }
+
+    /** Сбрасывает всё на диск с fsync и останавливает фоновый сброс. */
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(flushPolicy.getInterval().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
+        }
 
-            sb.append("\n");
-            sb.append(historyToString(historyManager));
+        synchronized (this) {
+            flushError = null;
+            flush();
+            sync();
+            if (journal != null) {
+                journal.close();
+            }
+            historyLog.close();
+        }
+    }
+
+    private ScheduledExecutorService startFlusher(Duration interval) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "task-flusher-" + path.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushInBackground,
+                interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        return executor;
+    }
+
+    private synchronized void flushInBackground() {
+        try {
+            flush();
+            if (flushPolicy.getDurability() == Durability.PERIODIC_FSYNC) {
+                sync();
+            }
+        } catch (ManagerSaveException e) {
+            flushError = e; // отдаём вызывающему при следующей операции
+        }
+    }
+
+    private void rethrowFlushError() {
+        if (flushError != null) {
+            ManagerSaveException e = flushError;
+            flushError = null;
+            throw e;
+        }
+    }
 
-            writer.write(sb.toString());
+    private void sync() {
+        historyLog.flush(true);
+        if (journal != null) {
+            journal.flush(true);
+            return;
+        }
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.force(true);
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка сохранения файла: " + path, e);
         }
     }
 
+    private void save(boolean fsync) {
+        writeSnapshot(path, format, fsync);
+        historyLog.reset(); // история уже в снимке
+    }
+
+    /** Пишет текущее состояние в {@code target} через временный файл и атомарную замену. */
+    synchronized void writeSnapshot(Path target, SnapshotFormat targetFormat, boolean fsync) {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp.toFile())) {
+            if (targetFormat == SnapshotFormat.BINARY) {
+                BinarySnapshotCodec.write(out, getAllTasks(), getAllEpics(), getAllSubtasks(),
+                        getHistory());
+            } else {
+                writeCsv(out);
+            }
+            if (fsync) {
+                out.getChannel().force(true);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения файла: " + target, e);
+        }
+
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения файла: " + target, e);
+        }
+    }
+
+    private void writeCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(HEADER);
+        writer.write("\n");
+
+        for (Task task : getAllTasks()) {
+            writer.write(task.toString());
+            writer.write("\n");
+        }
+        for (Epic epic : getAllEpics()) {
+            writer.write(epic.toString());
+            writer.write("\n");
+        }
+        for (Subtask subtask : getAllSubtasks()) {
+            writer.write(subtask.toString());
+            writer.write("\n");
+        }
+
+        writer.write("\n");
+        writer.write(historyToString(historyManager));
+        writer.flush(); // поток закрывает вызывающий, после fsync
+    }
+
+    /** Формат снимка определяется по заголовку файла и сохраняется для последующих записей. */
+    public static FileBackedTaskManager loadFromFile(Path path, PersistenceMode mode, FlushPolicy flushPolicy) {
+        SnapshotFormat format = BinarySnapshotCodec.isBinary(path) ? SnapshotFormat.BINARY : SnapshotFormat.CSV;
+        FileBackedTaskManager manager = new FileBackedTaskManager(path, mode, DEFAULT_SNAPSHOT_EVERY, flushPolicy,
+                format);
+        manager.load(true);
+        return manager;
+    }
+
+    /**
+     * Загружает снимок с журналами, ничего не меняя на диске: недописанный хвост журналов не обрезается.
+     * Для инструментов, которые только читают чужие файлы, — менять состояние такого менеджера нельзя.
+     */
+    static FileBackedTaskManager loadReadOnly(Path path) {
+        SnapshotFormat format = BinarySnapshotCodec.isBinary(path) ? SnapshotFormat.BINARY : SnapshotFormat.CSV;
+        FileBackedTaskManager manager = new FileBackedTaskManager(path, PersistenceMode.JOURNAL,
+                DEFAULT_SNAPSHOT_EVERY, FlushPolicy.writeThrough(), format);
+        manager.load(false);
+        return manager;
+    }
+
     public static FileBackedTaskManager loadFromFile(Path path) {
-        FileBackedTaskManager manager = new FileBackedTaskManager(path);
+        return loadFromFile(path, PersistenceMode.SNAPSHOT);
+    }
+
+    /**
+     * Загружает снимок и проигрывает поверх него хвост журнала, если он есть.
+     * В режиме SNAPSHOT найденный журнал сразу сворачивается в снимок.
+     */
+    public static FileBackedTaskManager loadFromFile(Path path, PersistenceMode mode) {
+        return loadFromFile(path, mode, FlushPolicy.writeThrough());
+    }
+
+    // Снимок и журнал проигрываются в режиме массовой загрузки: каждый эпик пересчитывается один раз в конце
+    private synchronized void load(boolean repair) {
+        TaskJournal wal = journal != null ? journal : new TaskJournal(TaskJournal.pathFor(path));
+
+        beginBulkRestore();
+        replaying = true;
+        try {
+            if (Files.exists(path) || (journal == null && !wal.exists())) {
+                readSnapshot();
+            }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(path.toFile()))) {
+            List<String> records = wal.readAll(repair);
+            records.addAll(historyLog.readAll(repair)); // просмотры — поверх уже восстановленных сущностей
+            for (String record : records) {
+                apply(record);
+            }
+        } finally {
+            replaying = false;
+            endBulkRestore();
+        }
+
+        if (journal == null && wal.exists()) {
+            save(flushPolicy.getDurability() != Durability.NONE);
+            wal.reset();
+        }
+    }
+
+    private void readSnapshot() {
+        if (format == SnapshotFormat.BINARY) {
+            readBinarySnapshot();
+            return;
+        }
+
+        boolean loaded = ParallelCsvLoader.read(path, this::restore, id -> {
+            Task task = findStored(id);
+            if (task != null) {
+                historyManager.add(task);
+            }
+        });
+        if (!loaded) {
+            readSnapshotByLines();
+        }
+    }
+
+    private void readSnapshotByLines() {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
             boolean readingHistory = false;
             String line;
 
@@ -179,25 +546,141 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
 
                 if (readingHistory) {
                     for (Integer id : historyFromString(line)) {
-                        Task task = manager.tasks.get(id);
-                        if (task == null) task = manager.epics.get(id);
-                        if (task == null) task = manager.subtasks.get(id);
-
+                        Task task = findStored(id);
                         if (task != null) {
-                            manager.historyManager.add(task);
+                            historyManager.add(task);
                         }
                     }
-                    return manager;
+                    return;
                 }
 
                 Task task = fromString(line);
-                manager.restore(task);
+                restore(task);
             }
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка загрузки файла: " + path, e);
         }
+    }
 
-        return manager;
+    private void readBinarySnapshot() {
+        byte[] data;
+        try {
+            data = Files.readAllBytes(path);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка загрузки файла: " + path, e);
+        }
+
+        BinarySnapshotCodec.read(data, this::restore, id -> {
+            Task task = findStored(id);
+            if (task != null) {
+                historyManager.add(task);
+            }
+        });
+    }
+
+    private void apply(String record) {
+        int sep = record.indexOf(',');
+        String op = record.substring(0, sep);
+        String payload = record.substring(sep + 1);
+
+        switch (op) {
+            case "PUTB":
+                upsert(TaskJournal.entity(payload));
+                break;
+
+            case "PUT": // журналы, записанные до перехода на двоичную разметку
+                upsert(fromString(payload));
+                break;
+
+            case "DEL": {
+                int id = Integer.parseInt(payload);
+                if (tasks.containsKey(id)) deleteTaskById(id);
+                else if (epics.containsKey(id)) deleteEpicById(id);
+                else if (subtasks.containsKey(id)) deleteSubtaskById(id);
+                break;
+            }
+
+            case "CLEAR":
+                switch (Type.valueOf(payload)) {
+                    case TASK:
+                        deleteAllTasks();
+                        break;
+                    case EPIC:
+                        deleteAllEpics();
+                        break;
+                    case SUBTASK:
+                        deleteAllSubtasks();
+                        break;
+                }
+                break;
+
+            case "VIEW": {
+                Task task = findStored(Integer.parseInt(payload));
+                if (task != null) {
+                    historyManager.add(task);
+                }
+                break;
+            }
+
+            default:
+                throw new ManagerSaveException("Неизвестная запись журнала: " + record, null);
+        }
+    }
+
+    // Запись PUT — полное состояние сущности, поэтому применяется без проверок пересечений
+    private void upsert(Task task) {
+        switch (task.getType()) {
+            case TASK: {
+                Task stored = tasks.get(task.getId());
+                if (stored == null) {
+                    restore(task);
+                    return;
+                }
+                removeFromPrioritized(stored);
+                tasks.put(task.getId(), task);
+                addToPrioritized(task);
+                break;
+            }
+
+            case EPIC: {
+                Epic stored = epics.get(task.getId());
+                if (stored == null) {
+                    restore(task);
+                    return;
+                }
+                stored.setName(task.getName());
+                stored.setDescription(task.getDescription());
+                break;
+            }
+
+            case SUBTASK: {
+                Subtask sub = (Subtask) task;
+                if (!epics.containsKey(sub.getEpicId())) {
+                    return; // эпик удалён дальше по журналу или уже в снимке
+                }
+
+                Subtask stored = subtasks.get(sub.getId());
+                if (stored == null) {
+                    restore(sub);
+                    return;
+                }
+                removeFromPrioritized(stored);
+                subtasks.put(sub.getId(), sub);
+                addToPrioritized(sub);
+                refreshSubtask(epics.get(sub.getEpicId()), sub);
+                break;
+            }
+
+            default:
+                throw new IllegalArgumentException("Unknown type: " + task.getType());
+        }
+    }
+
+    private Task findStored(int id) {
+        Task task = tasks.get(id);
+        if (task == null) task = epics.get(id);
+        if (task == null) task = subtasks.get(id);
+        return task;
     }
 
     private void restore(Task task) {
@@ -206,10 +689,12 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         switch (task.getType()) {
             case TASK:
                 tasks.put(task.getId(), task);
+                addToPrioritized(task);
                 break;
 
             case EPIC:
                 epics.put(task.getId(), (Epic) task);
+                indexStatus(task);
                 break;
 
             case SUBTASK:
@@ -222,9 +707,8 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
                             " ссылается на несуществующий эпик " + sub.getEpicId(), null);
                 }
 
-                epic.addSubtaskId(sub.getId());
-                updateEpicStatus(epic.getId());
-                calculateEpicEndTime(epic.getId());
+                addToPrioritized(sub);
+                attachSubtask(epic, sub);
                 break;
 
             default:
@@ -232,7 +716,7 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         }
     }
 
-    private static Task fromString(String line) {
+    static Task fromString(String line) {
         String[] parts = line.split(",", -1);
 
         int id = Integer.parseInt(parts[0]);
@@ -276,7 +760,7 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         return sb.length() == 0 ? "" : sb.substring(0, sb.length() - 1);
     }
 
-    private static List<Integer> historyFromString(String line) {
+    static List<Integer> historyFromString(String line) {
         List<Integer> history = new ArrayList<>();
         if (line == null || line.isBlank()) return history;
 
@@ -0,0 +1,70 @@
+package manager;
+
+import enums.Durability;
+
+import java.time.Duration;
+
+/**
+ * Когда {@link FileBackedTaskManager} сбрасывает изменения на диск и когда делает fsync.
+ */
+public final class FlushPolicy {
+    private final int batchSize;
+    private final Duration interval;
+    private final Durability durability;
+
+    private FlushPolicy(int batchSize, Duration interval, Durability durability) {
+        this.batchSize = batchSize;
+        this.interval = interval;
+        this.durability = durability;
+    }
+
+    /** Каждое изменение пишется сразу, fsync остаётся на усмотрение ОС (поведение по умолчанию). */
+    public static FlushPolicy writeThrough() {
+        return new FlushPolicy(1, null, Durability.NONE);
+    }
+
+    /** Каждое изменение пишется сразу и подтверждается fsync до возврата из метода. */
+    public static FlushPolicy syncPerOperation() {
+        return new FlushPolicy(1, null, Durability.SYNC_PER_OP);
+    }
+
+    /**
+     * Изменения копятся в памяти и сбрасываются одной записью, когда их набралось {@code batchSize}
+     * или прошёл {@code interval} с прошлого сброса.
+     *
+     * @param durability SYNC_PER_BATCH — fsync при каждом сбросе, PERIODIC_FSYNC — fsync по таймеру,
+     *                   NONE — без fsync
+     */
+    public static FlushPolicy writeBehind(int batchSize, Duration interval, Durability durability) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be > 0");
+        }
+        if (interval == null || interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("interval must be > 0");
+        }
+        if (durability == Durability.SYNC_PER_OP) {
+            throw new IllegalArgumentException("SYNC_PER_OP is not a write-behind policy, use syncPerOperation()");
+        }
+        return new FlushPolicy(batchSize, interval, durability);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public boolean isWriteBehind() {
+        return interval != null;
+    }
+
+    boolean syncOnFlush() {
+        return durability == Durability.SYNC_PER_OP || durability == Durability.SYNC_PER_BATCH;
+    }
+}
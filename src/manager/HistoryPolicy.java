@@ -0,0 +1,93 @@
+package manager;
+
+import enums.EvictionPolicy;
+import model.Epic;
+import model.Task;
+
+import java.time.Duration;
+
+/**
+ * Сколько хранит {@link InMemoryHistoryManager} и что вытесняет первым.
+ * Вытесняются всегда самые давние просмотры: LRU — когда превышен лимит по числу записей или по памяти,
+ * TIME_WINDOW — дополнительно всё, что просмотрено раньше {@code window} назад.
+ */
+public final class HistoryPolicy {
+    private static final HistoryPolicy UNBOUNDED = new HistoryPolicy(EvictionPolicy.LRU, 0, 0, null);
+
+    private final EvictionPolicy eviction;
+    private final int maxEntries; // 0 — без лимита
+    private final long maxBytes; // 0 — без лимита
+    private final Duration window;
+
+    private HistoryPolicy(EvictionPolicy eviction, int maxEntries, long maxBytes, Duration window) {
+        this.eviction = eviction;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.window = window;
+    }
+
+    /** История без ограничений (поведение по умолчанию). */
+    public static HistoryPolicy unbounded() {
+        return UNBOUNDED;
+    }
+
+    /**
+     * Не больше {@code maxEntries} записей и {@code maxBytes} оценочных байт; 0 — без соответствующего лимита.
+     */
+    public static HistoryPolicy lru(int maxEntries, long maxBytes) {
+        checkLimits(maxEntries, maxBytes);
+        return new HistoryPolicy(EvictionPolicy.LRU, maxEntries, maxBytes, null);
+    }
+
+    /** Только просмотры за последние {@code window}; лимиты — как в {@link #lru}. */
+    public static HistoryPolicy timeWindow(Duration window, int maxEntries, long maxBytes) {
+        if (window == null || window.isZero() || window.isNegative()) {
+            throw new IllegalArgumentException("window must be > 0");
+        }
+        checkLimits(maxEntries, maxBytes);
+        return new HistoryPolicy(EvictionPolicy.TIME_WINDOW, maxEntries, maxBytes, window);
+    }
+
+    private static void checkLimits(int maxEntries, long maxBytes) {
+        if (maxEntries < 0 || maxBytes < 0) {
+            throw new IllegalArgumentException("limits must be >= 0");
+        }
+    }
+
+    /**
+     * Грубая оценка памяти, которую держит запись истории: узел, ячейка индекса, сама задача и её строки.
+     * Задачу история делит с менеджером, так что это скорее «вес» записи, чем точный размер.
+     */
+    static int estimateBytes(Task task) {
+        int bytes = 96 + 64; // Node + ячейка IntObjectHashMap, заголовок и поля Task
+        bytes += stringBytes(task.getName()) + stringBytes(task.getDescription());
+        if (task instanceof Epic) {
+            bytes += 8 * ((Epic) task).getSubtaskCount();
+        }
+        return bytes;
+    }
+
+    private static int stringBytes(String s) {
+        return s == null ? 0 : 40 + s.length() * 2;
+    }
+
+    public EvictionPolicy getEviction() {
+        return eviction;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    boolean isTimeWindow() {
+        return eviction == EvictionPolicy.TIME_WINDOW;
+    }
+}
@@ -3,23 +3,29 @@ package manager;
 import interfaces.HistoryManager;
 import model.Node;
 import model.Task;
+import util.IntObjectHashMap;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.function.LongSupplier;
 
 public class InMemoryHistoryManager implements HistoryManager {
     private final CustomLinkedList history = new CustomLinkedList();
-    private final Map<Integer, Node> nodeById = new HashMap<>();
+    private final IntObjectHashMap<Node> nodeById = new IntObjectHashMap<>();
+
+    private final HistoryPolicy policy;
+    private final LongSupplier clock;
+    private final long windowMillis;
+    private long bytes;
 
     private class CustomLinkedList {
         private Node head;
         private Node tail;
 
-        void linkLast(Task task) {
+        void linkLast(Task task, long viewedAt, int size) {
             Node oldTail = tail;
-            Node newTail = new Node(oldTail, task, null);
+            Node newTail = new Node(oldTail, task, null, viewedAt, size);
 
             tail = newTail;
             if (oldTail == null) {
@@ -49,26 +55,45 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
     }
 
+    public InMemoryHistoryManager() {
+        this(HistoryPolicy.unbounded());
+    }
+
+    public InMemoryHistoryManager(HistoryPolicy policy) {
+        this(policy, System::currentTimeMillis);
+    }
+
+    InMemoryHistoryManager(HistoryPolicy policy, LongSupplier clock) {
+        this.policy = policy;
+        this.clock = clock;
+        this.windowMillis = policy.isTimeWindow() ? policy.getWindow().toMillis() : 0;
+    }
+
     @Override
     public void add(Task task) {
         if (task == null) {
             return;
         }
         remove(task.getId());
-        history.linkLast(task);
+
+        int size = policy.getMaxBytes() > 0 ? HistoryPolicy.estimateBytes(task) : 0;
+        long now = clock.getAsLong();
+        history.linkLast(task, now, size);
+        bytes += size;
+        evict(now);
     }
 
     @Override
     public void remove(int id) {
         Node node = nodeById.remove(id);
         if (node != null) {
-            history.removeNode(node);
+            unlink(node);
         }
     }
 
     @Override
     public List<Task> getHistory() {
-        List<Task> result = new ArrayList<>();
+        List<Task> result = new ArrayList<>(nodeById.size());
         Node current = history.head;
 
         while (current != null) {
@@ -77,4 +102,63 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
         return result;
     }
-}
\ No newline at end of file
+
+    // Идём от хвоста: стоимость зависит от limit, а не от размера истории
+    @Override
+    public List<Task> getHistory(int limit) {
+        List<Task> result = new ArrayList<>(Math.min(Math.max(limit, 0), nodeById.size()));
+        Node current = history.tail;
+
+        while (current != null && result.size() < limit) {
+            result.add(current.getData());
+            current = current.getPrevious();
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    @Override
+    public boolean expire() {
+        return expire(clock.getAsLong());
+    }
+
+    public int size() {
+        return nodeById.size();
+    }
+
+    /** Оценка памяти записей истории; считается только при лимите по байтам. */
+    public long getEstimatedBytes() {
+        return bytes;
+    }
+
+    // Самые давние просмотры — в голове списка, поэтому вытеснение всегда с головы и за O(1) на запись
+    private void evict(long now) {
+        int maxEntries = policy.getMaxEntries();
+        long maxBytes = policy.getMaxBytes();
+        while (history.head != null
+                && ((maxEntries > 0 && nodeById.size() > maxEntries) || (maxBytes > 0 && bytes > maxBytes))) {
+            evictHead();
+        }
+        expire(now);
+    }
+
+    private boolean expire(long now) {
+        boolean expired = false;
+        while (windowMillis > 0 && history.head != null && now - history.head.getViewedAt() > windowMillis) {
+            evictHead();
+            expired = true;
+        }
+        return expired;
+    }
+
+    private void evictHead() {
+        Node head = history.head;
+        nodeById.remove(head.getData().getId());
+        unlink(head);
+    }
+
+    private void unlink(Node node) {
+        history.removeNode(node);
+        bytes -= node.getBytes();
+    }
+}
@@ -1,23 +1,29 @@
 package manager;
 
+import enums.ChangeType;
 import enums.Status;
 import enums.Type;
 import interfaces.HistoryManager;
 import interfaces.TaskManager;
 import model.Epic;
+import model.EpicAggregate;
 import model.Subtask;
 import model.Task;
+import util.IntLinkedHashSet;
+import util.IntObjectHashMap;
+import util.IntervalTree;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
 
 public class InMemoryTaskManager implements TaskManager {
     protected int nextId = 1;
 
-    protected final Map<Integer, Task> tasks = new HashMap<>();
-    protected final Map<Integer, Epic> epics = new HashMap<>();
-    protected final Map<Integer, Subtask> subtasks = new HashMap<>();
+    protected final IntObjectHashMap<Task> tasks = new IntObjectHashMap<>();
+    protected final IntObjectHashMap<Epic> epics = new IntObjectHashMap<>();
+    protected final IntObjectHashMap<Subtask> subtasks = new IntObjectHashMap<>();
 
     protected final HistoryManager historyManager;
 
@@ -35,34 +41,61 @@ public class InMemoryTaskManager implements TaskManager {
         return Integer.compare(a.getId(), b.getId());
     });
 
+    // Задачи со startTime по интервалам [start, end) в секундах: проверка пересечений и выборка по окну
+    protected final IntervalTree<Task> timeIndex = new IntervalTree<>();
+
+    // id каждой коллекции по статусам, индекс — Type.ordinal()
+    private final StatusIndex[] statusIndexes = {new StatusIndex(), new StatusIndex(), new StatusIndex()};
+
+    private boolean bulkRestore;
+
+    // Общий монотонный счётчик изменений; коллекция и сущность запоминают номер своего последнего изменения
+    private long modificationCount;
+    private final long[] collectionVersions = new long[Type.values().length];
+    private long historyVersion;
+
+    protected final ChangeLog changeLog = new ChangeLog();
+
+    // Версия prioritizedTasks и снимок, собранный для неё; снимок пересобирается при первом чтении после изменения
+    protected long prioritizedVersion;
+    private volatile PrioritizedSnapshot prioritizedSnapshot = new PrioritizedSnapshot(0, List.of());
+
     public InMemoryTaskManager(HistoryManager historyManager) {
         this.historyManager = historyManager;
     }
 
     // ---------- ID ----------
-    private int generateId() {
+    protected int generateId() {
         return nextId++;
     }
 
     // ---------- TASK ----------
     @Override
     public List<Task> getAllTasks() {
-        return new ArrayList<>(tasks.values());
+        return tasks.values();
+    }
+
+    @Override
+    public List<Task> getTasksPage(int afterId, int limit) {
+        return tasks.valuesAfter(afterId, limit);
     }
 
     @Override
     public void deleteAllTasks() {
-        for (Integer id : tasks.keySet()) {
-            historyManager.remove(id);
-            removeFromPrioritized(tasks.get(id));
-        }
+        tasks.forEachValue(task -> {
+            removeFromHistory(task.getId());
+            removeFromPrioritized(task);
+            publishDeleted(task);
+        });
         tasks.clear();
+        statusIndex(Type.TASK).clear();
+        touchCollection(Type.TASK);
     }
 
     @Override
     public Task getTaskById(int id) {
         Task task = tasks.get(id);
-        historyManager.add(task);
+        addToHistory(task);
         return task;
     }
 
@@ -71,10 +104,11 @@ public class InMemoryTaskManager implements TaskManager {
         int id = generateId();
         task.setId(id);
 
-        validateNoTimeIntersection(task, null);
+        validateNoTimeIntersection(task);
 
         tasks.put(id, task);
         addToPrioritized(task);
+        touch(task, ChangeType.CREATED);
         return task;
     }
 
@@ -84,11 +118,12 @@ public class InMemoryTaskManager implements TaskManager {
         Task stored = tasks.get(task.getId());
         if (stored == null) return null;
 
-        validateNoTimeIntersection(task, stored);
+        validateNoTimeIntersection(task);
 
         removeFromPrioritized(stored);
         tasks.put(task.getId(), task);
         addToPrioritized(task);
+        touch(task);
         return task;
     }
 
@@ -97,34 +132,47 @@ public class InMemoryTaskManager implements TaskManager {
         Task removed = tasks.remove(id);
         if (removed != null) {
             removeFromPrioritized(removed);
+            touchCollection(Type.TASK);
+            publishDeleted(removed);
         }
-        historyManager.remove(id);
+        removeFromHistory(id);
         return removed;
     }
 
     // ---------- EPIC ----------
     @Override
     public List<Epic> getAllEpics() {
-        return new ArrayList<>(epics.values());
+        return epics.values();
+    }
+
+    @Override
+    public List<Epic> getEpicsPage(int afterId, int limit) {
+        return epics.valuesAfter(afterId, limit);
     }
 
     @Override
     public void deleteAllEpics() {
-        for (Integer id : subtasks.keySet()) {
-            historyManager.remove(id);
-            removeFromPrioritized(subtasks.get(id));
-        }
-        for (Integer id : epics.keySet()) {
-            historyManager.remove(id);
-        }
+        subtasks.forEachValue(subtask -> {
+            removeFromHistory(subtask.getId());
+            removeFromPrioritized(subtask);
+            publishDeleted(subtask);
+        });
+        epics.forEachValue(epic -> {
+            removeFromHistory(epic.getId());
+            publishDeleted(epic);
+        });
         subtasks.clear();
         epics.clear();
+        statusIndex(Type.SUBTASK).clear();
+        statusIndex(Type.EPIC).clear();
+        touchCollection(Type.SUBTASK);
+        touchCollection(Type.EPIC);
     }
 
     @Override
     public Epic getEpicById(int id) {
         Epic epic = epics.get(id);
-        historyManager.add(epic);
+        addToHistory(epic);
         return epic;
     }
 
@@ -134,6 +182,8 @@ public class InMemoryTaskManager implements TaskManager {
         epic.setId(id);
         epic.setStatus(Status.NEW);
         epics.put(id, epic);
+        indexStatus(epic);
+        touch(epic, ChangeType.CREATED);
         return epic;
     }
 
@@ -149,6 +199,7 @@ public class InMemoryTaskManager implements TaskManager {
 
         updateEpicStatus(stored.getId());
         calculateEpicEndTime(stored.getId());
+        touch(stored);
         return stored;
     }
 
@@ -159,39 +210,57 @@ public class InMemoryTaskManager implements TaskManager {
             return null;
         }
 
-        for (Integer subId : removed.getSubtaskIds()) {
-            subtasks.remove(subId);
-            historyManager.remove(subId);
-        }
+        removed.forEachSubtaskId(subId -> {
+            Subtask subtask = subtasks.remove(subId);
+            removeFromPrioritized(subtask);
+            removeFromHistory(subId);
+            if (subtask != null) {
+                publishDeleted(subtask);
+            }
+        });
 
-        historyManager.remove(id);
+        removeFromHistory(id);
+        statusIndex(Type.EPIC).remove(id);
+        publishDeleted(removed);
+        touchCollection(Type.SUBTASK);
+        touchCollection(Type.EPIC);
         return removed;
     }
 
     // ---------- SUBTASK ----------
     @Override
     public List<Subtask> getAllSubtasks() {
-        return new ArrayList<>(subtasks.values());
+        return subtasks.values();
+    }
+
+    @Override
+    public List<Subtask> getSubtasksPage(int afterId, int limit) {
+        return subtasks.valuesAfter(afterId, limit);
     }
 
     @Override
     public void deleteAllSubtasks() {
-        for (Integer id : subtasks.keySet()) {
-            historyManager.remove(id);
-            removeFromPrioritized(subtasks.get(id));
-        }
+        subtasks.forEachValue(subtask -> {
+            removeFromHistory(subtask.getId());
+            removeFromPrioritized(subtask);
+            publishDeleted(subtask);
+        });
         subtasks.clear();
+        statusIndex(Type.SUBTASK).clear();
+        touchCollection(Type.SUBTASK);
 
-        for (Epic epic : epics.values()) {
+        epics.forEachValue(epic -> {
             epic.clearSubtaskIds();
-            epic.setStatus(Status.NEW);
-        }
+            updateEpicStatus(epic.getId());
+            calculateEpicEndTime(epic.getId());
+            touch(epic);
+        });
     }
 
     @Override
     public Subtask getSubtaskById(int id) {
         Subtask subtask = subtasks.get(id);
-        historyManager.add(subtask);
+        addToHistory(subtask);
         return subtask;
     }
 
@@ -204,13 +273,15 @@ public class InMemoryTaskManager implements TaskManager {
 
         int id = generateId();
         subtask.setId(id);
-        validateNoTimeIntersection(subtask, null);
+        validateNoTimeIntersection(subtask);
         subtasks.put(id, subtask);
         addToPrioritized(subtask);
 
-        epic.addSubtaskId(id);
+        epic.addSubtask(subtask);
         updateEpicStatus(epic.getId());
         calculateEpicEndTime(epic.getId());
+        touch(subtask, ChangeType.CREATED);
+        touch(epic);
         return subtask;
     }
 
@@ -225,13 +296,22 @@ public class InMemoryTaskManager implements TaskManager {
             return null;
         }
 
-        validateNoTimeIntersection(subtask, stored);
+        validateNoTimeIntersection(subtask);
         removeFromPrioritized(stored);
 
         subtasks.put(subtask.getId(), subtask);
         addToPrioritized(subtask);
+
+        Epic epic = epics.get(subtask.getEpicId());
+        if (epic != null) {
+            epic.updateSubtask(subtask);
+        }
         updateEpicStatus(subtask.getEpicId());
         calculateEpicEndTime(subtask.getEpicId());
+        touch(subtask);
+        if (epic != null) {
+            touch(epic);
+        }
         return subtask;
     }
 
@@ -242,19 +322,200 @@ public class InMemoryTaskManager implements TaskManager {
             return null;
         }
         removeFromPrioritized(removed);
+        touchCollection(Type.SUBTASK);
+        publishDeleted(removed);
 
         Epic epic = epics.get(removed.getEpicId());
         if (epic != null) {
             epic.removeSubtaskId(id);
             updateEpicStatus(epic.getId());
             calculateEpicEndTime(epic.getId());
+            touch(epic);
         }
 
-        historyManager.remove(id);
+        removeFromHistory(id);
         return removed;
     }
 
+    // ---------- BATCH ----------
+    @Override
+    public List<Task> createTasks(List<Task> batch) {
+        validateBatch(batch, false);
+
+        for (Task task : batch) {
+            int id = generateId();
+            task.setId(id);
+            tasks.put(id, task);
+            addToPrioritized(task);
+            touch(task, ChangeType.CREATED);
+        }
+        return new ArrayList<>(batch);
+    }
+
+    @Override
+    public List<Task> updateTasks(List<Task> batch) {
+        for (Task task : batch) {
+            if (task != null && !tasks.containsKey(task.getId())) {
+                return null;
+            }
+        }
+        validateBatch(batch, true);
+
+        for (Task task : batch) {
+            removeFromPrioritized(tasks.put(task.getId(), task));
+            addToPrioritized(task);
+            touch(task);
+        }
+        return new ArrayList<>(batch);
+    }
+
+    @Override
+    public List<Task> deleteTasks(List<Integer> ids) {
+        List<Task> removed = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Task task = tasks.remove(id);
+            if (task != null) {
+                removeFromPrioritized(task);
+                removeFromHistory(id);
+                publishDeleted(task);
+                removed.add(task);
+            }
+        }
+        if (!removed.isEmpty()) {
+            touchCollection(Type.TASK);
+        }
+        return removed;
+    }
+
+    @Override
+    public List<Subtask> createSubtasks(List<Subtask> batch) {
+        for (Subtask subtask : batch) {
+            if (subtask != null && !epics.containsKey(subtask.getEpicId())) {
+                return null;
+            }
+        }
+        validateBatch(batch, false);
+
+        IntLinkedHashSet affectedEpics = new IntLinkedHashSet();
+        for (Subtask subtask : batch) {
+            int id = generateId();
+            subtask.setId(id);
+            subtasks.put(id, subtask);
+            addToPrioritized(subtask);
+            touch(subtask, ChangeType.CREATED);
+            epics.get(subtask.getEpicId()).addSubtask(subtask);
+            affectedEpics.add(subtask.getEpicId());
+        }
+        refreshEpics(affectedEpics);
+        return new ArrayList<>(batch);
+    }
+
+    @Override
+    public List<Subtask> updateSubtasks(List<Subtask> batch) {
+        for (Subtask subtask : batch) {
+            if (subtask == null) {
+                continue;
+            }
+            Subtask stored = subtasks.get(subtask.getId());
+            if (stored == null || stored.getEpicId() != subtask.getEpicId()) {
+                return null;
+            }
+        }
+        validateBatch(batch, true);
+
+        IntLinkedHashSet affectedEpics = new IntLinkedHashSet();
+        for (Subtask subtask : batch) {
+            removeFromPrioritized(subtasks.put(subtask.getId(), subtask));
+            addToPrioritized(subtask);
+            touch(subtask);
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic != null) {
+                epic.updateSubtask(subtask);
+                affectedEpics.add(epic.getId());
+            }
+        }
+        refreshEpics(affectedEpics);
+        return new ArrayList<>(batch);
+    }
+
+    @Override
+    public List<Subtask> deleteSubtasks(List<Integer> ids) {
+        List<Subtask> removed = new ArrayList<>(ids.size());
+        IntLinkedHashSet affectedEpics = new IntLinkedHashSet();
+        for (int id : ids) {
+            Subtask subtask = subtasks.remove(id);
+            if (subtask == null) {
+                continue;
+            }
+            removeFromPrioritized(subtask);
+            removeFromHistory(id);
+            publishDeleted(subtask);
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic != null) {
+                epic.removeSubtaskId(id);
+                affectedEpics.add(epic.getId());
+            }
+            removed.add(subtask);
+        }
+        if (!removed.isEmpty()) {
+            touchCollection(Type.SUBTASK);
+        }
+        refreshEpics(affectedEpics);
+        return removed;
+    }
+
+    private void refreshEpics(IntLinkedHashSet epicIds) {
+        epicIds.forEach(epicId -> {
+            updateEpicStatus(epicId);
+            calculateEpicEndTime(epicId);
+            touch(epics.get(epicId));
+        });
+    }
+
+    // ---------- STATUS ----------
+    @Override
+    public List<Task> getTasksByStatus(Status status, int afterId, int limit) {
+        return byStatus(tasks, Type.TASK, status, afterId, limit);
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(Status status, int afterId, int limit) {
+        return byStatus(epics, Type.EPIC, status, afterId, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(Status status, int afterId, int limit) {
+        return byStatus(subtasks, Type.SUBTASK, status, afterId, limit);
+    }
+
+    @Override
+    public int countByStatus(Type type, Status status) {
+        return statusIndex(type).count(status);
+    }
+
+    private <T extends Task> List<T> byStatus(IntObjectHashMap<T> storage, Type type, Status status,
+                                              int afterId, int limit) {
+        int[] ids = statusIndex(type).page(status, afterId, limit);
+        List<T> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(storage.get(id));
+        }
+        return result;
+    }
+
     // ---------- EXTRA ----------
+    @Override
+    public Task findById(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = epics.get(id);
+        }
+        if (task == null) {
+            task = subtasks.get(id);
+        }
+        return task;
+    }
+
     @Override
     public List<Subtask> getSubtasksOfEpic(int epicId) {
         Epic epic = epics.get(epicId);
@@ -262,154 +523,289 @@ public class InMemoryTaskManager implements TaskManager {
             return new ArrayList<>();
         }
 
-        List<Subtask> result = new ArrayList<>();
-        for (Integer subId : epic.getSubtaskIds()) {
+        List<Subtask> result = new ArrayList<>(epic.getSubtaskCount());
+        epic.forEachSubtaskId(subId -> {
             Subtask st = subtasks.get(subId);
             if (st != null) {
                 result.add(st);
             }
-        }
+        });
         return result;
     }
 
+    // ---------- VERSIONS ----------
+    @Override
+    public long getVersion(Type type) {
+        return collectionVersions[type.ordinal()];
+    }
+
+    @Override
+    public long getHistoryVersion() {
+        expireHistory();
+        return historyVersion;
+    }
+
+    /** Отмечает изменение сущности: новый номер получают она сама и её коллекция. */
+    protected void touch(Task task) {
+        touch(task, ChangeType.UPDATED);
+    }
+
+    /** То же, с публикацией события {@code change} в ленту изменений. */
+    protected void touch(Task task, ChangeType change) {
+        long version = ++modificationCount;
+        task.setVersion(version);
+        collectionVersions[task.getType().ordinal()] = version;
+        changeLog.append(change, task);
+    }
+
+    protected void publishDeleted(Task task) {
+        changeLog.append(ChangeType.DELETED, task);
+    }
+
+    // ---------- CHANGES ----------
+    @Override
+    public ChangeLog getChangeLog() {
+        return changeLog;
+    }
+
+    /** Отмечает изменение состава коллекции (удаление). */
+    protected void touchCollection(Type type) {
+        collectionVersions[type.ordinal()] = ++modificationCount;
+    }
+
+    protected void addToHistory(Task task) {
+        if (task != null) {
+            historyManager.add(task);
+            historyVersion++;
+        }
+    }
+
+    protected void removeFromHistory(int id) {
+        historyManager.remove(id);
+        historyVersion++;
+    }
+
+    /** Вытесняет устаревшие просмотры; если история изменилась, её версия сдвигается. */
+    protected void expireHistory() {
+        if (historyManager.expire()) {
+            historyVersion++;
+        }
+    }
+
     // ---------- HISTORY ----------
     @Override
     public List<Task> getHistory() {
+        expireHistory();
         return historyManager.getHistory();
     }
 
+    @Override
+    public List<Task> getHistory(int limit) {
+        expireHistory();
+        return historyManager.getHistory(limit);
+    }
+
     @Override
     public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(prioritizedTasks);
+        PrioritizedSnapshot snapshot = prioritizedSnapshot;
+        if (snapshot.version != prioritizedVersion) {
+            snapshot = new PrioritizedSnapshot(prioritizedVersion,
+                    Collections.unmodifiableList(new ArrayList<>(prioritizedTasks)));
+            prioritizedSnapshot = snapshot;
+        }
+        return snapshot.tasks;
+    }
+
+    @Override
+    public long getPrioritizedVersion() {
+        return prioritizedVersion;
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        long start = from == null ? Long.MIN_VALUE : toSeconds(from);
+        long end = to == null ? Long.MAX_VALUE : toSeconds(to);
+
+        List<Task> result = new ArrayList<>();
+        if (start < end) {
+            timeIndex.collectOverlapping(start, end, result);
+        }
+        return result;
     }
 
     // ---------- STATUS ----------
+    // Оба метода читают накопленные агрегаты эпика и не обходят его подзадачи
     protected void updateEpicStatus(int epicId) {
         Epic epic = epics.get(epicId);
         if (epic == null) {
             return;
         }
 
-        List<Integer> subtaskIds = epic.getSubtaskIds();
-        if (subtaskIds.isEmpty()) {
-            epic.setStatus(Status.NEW);
-            return;
-        }
-
-        boolean allNew = true;
-        boolean allDone = true;
-
-        for (Integer subId : subtaskIds) {
-            Subtask subtask = subtasks.get(subId);
-            if (subtask == null) {
-                continue;
-            }
-
-            if (subtask.getStatus() != Status.NEW) {
-                allNew = false;
-            }
-            if (subtask.getStatus() != Status.DONE) {
-                allDone = false;
-            }
-        }
-
-        if (allDone) {
-            epic.setStatus(Status.DONE);
-        } else if (allNew) {
-            epic.setStatus(Status.NEW);
-        } else {
-            epic.setStatus(Status.IN_PROGRESS);
-        }
+        epic.setStatus(epic.getAggregate().getStatus());
+        indexStatus(epic);
     }
 
     protected void calculateEpicEndTime(int epicId) {
         Epic epic = epics.get(epicId);
         if (epic == null) return;
 
-        List<Integer> subtaskIds = epic.getSubtaskIds();
-        if (subtaskIds.isEmpty()) {
-            epic.setStatus(Status.NEW);
-            epic.setDuration(0);
-            epic.setStartTime(null);
-            epic.setEndTime(null);
-            return;
-        }
-
-        long totalDuration = 0;
-        LocalDateTime earliestStart = null;
-        LocalDateTime latestEnd = null;
-
-        for (Integer subId : subtaskIds) {
-            Subtask subtask = subtasks.get(subId);
-            if (subtask == null) {
-                continue;
-            }
+        EpicAggregate aggregate = epic.getAggregate();
+        epic.setDuration(aggregate.getTotalDuration());
+        epic.setStartTime(aggregate.getEarliestStart());
+        epic.setEndTime(aggregate.getLatestEnd());
+    }
 
-            totalDuration += subtask.getDuration();
+    // ---------- BULK RESTORE ----------
+    /**
+     * Массовая загрузка: подзадачи привязываются к эпикам без пересчёта,
+     * агрегаты, статус и время каждого эпика считаются один раз в {@link #endBulkRestore()}.
+     */
+    protected void beginBulkRestore() {
+        bulkRestore = true;
+    }
 
-            LocalDateTime subtaskStart = subtask.getStartTime();
-            LocalDateTime subtaskEnd = subtask.getEndTime();
+    protected void endBulkRestore() {
+        bulkRestore = false;
+        epics.forEachValue(epic -> {
+            List<Subtask> epicSubtasks = new ArrayList<>(epic.getSubtaskCount());
+            epic.forEachSubtaskId(subId -> epicSubtasks.add(subtasks.get(subId)));
+            epic.getAggregate().rebuild(epicSubtasks);
+            updateEpicStatus(epic.getId());
+            calculateEpicEndTime(epic.getId());
+        });
+        changeLog.clear(); // загруженное состояние — отправная точка ленты
+    }
 
-            if (subtaskStart != null && (earliestStart == null || subtaskStart.isBefore(earliestStart))) {
-                earliestStart = subtaskStart;
-            }
-            if (subtaskEnd != null && (latestEnd == null || subtaskEnd.isAfter(latestEnd))) {
-                latestEnd = subtaskEnd;
-            }
+    /** Привязывает новую подзадачу к эпику; вне массовой загрузки эпик пересчитывается сразу. */
+    protected void attachSubtask(Epic epic, Subtask subtask) {
+        if (bulkRestore) {
+            epic.addSubtaskId(subtask.getId());
+            return;
         }
+        epic.addSubtask(subtask);
+        updateEpicStatus(epic.getId());
+        calculateEpicEndTime(epic.getId());
+    }
 
-        epic.setDuration(totalDuration);
-        epic.setStartTime(earliestStart);
-        epic.setEndTime(latestEnd);
+    /** Учитывает новую версию уже привязанной подзадачи; при массовой загрузке — в {@link #endBulkRestore()}. */
+    protected void refreshSubtask(Epic epic, Subtask subtask) {
+        if (bulkRestore) {
+            return;
+        }
+        epic.updateSubtask(subtask);
+        updateEpicStatus(epic.getId());
+        calculateEpicEndTime(epic.getId());
     }
 
     // ---------------- TIME INTERSECTIONS ----------------
-    private void addToPrioritized(Task task) {
+    // Через эту пару методов проходит каждое сохранение и удаление задачи или подзадачи,
+    // поэтому здесь же ведётся и индекс по статусу; эпики индексируются отдельно, при пересчёте статуса
+    protected void addToPrioritized(Task task) {
         if (task == null) return;
         if (task.getType() == Type.EPIC) return;
 
+        indexStatus(task);
         prioritizedTasks.add(task);
+        prioritizedVersion++;
+        if (task.getStartTime() != null) {
+            timeIndex.insert(toSeconds(task.getStartTime()), toSeconds(task.getEndTime()), task.getId(), task);
+        }
     }
 
-    private void removeFromPrioritized(Task task) {
+    protected void removeFromPrioritized(Task task) {
         if (task == null) return;
         if (task.getType() == Type.EPIC) return;
 
-        prioritizedTasks.remove(task);
+        if (prioritizedTasks.remove(task)) {
+            prioritizedVersion++;
+        }
+        timeIndex.remove(task.getId());
+        statusIndex(task.getType()).remove(task.getId());
     }
 
-    private void validateNoTimeIntersection(Task newTask, Task oldTask) {
-        if (newTask == null) return;
+    protected void indexStatus(Task task) {
+        statusIndex(task.getType()).put(task);
+    }
 
-        if (newTask.getStartTime() != null && newTask.getDuration() <= 0) {
-            throw new IllegalArgumentException("duration must be > 0 when startTime is set");
-        }
+    private StatusIndex statusIndex(Type type) {
+        return statusIndexes[type.ordinal()];
+    }
 
-        if (newTask.getStartTime() == null || newTask.getDuration() <= 0) return;
-        if (newTask.getType() == Type.EPIC) return;
+    // Прежняя версия обновляемой задачи имеет тот же id и просто исключается из поиска
+    private void validateNoTimeIntersection(Task newTask) {
+        if (!isScheduled(newTask)) return;
 
-        if (oldTask != null) prioritizedTasks.remove(oldTask);
+        Task conflict = timeIndex.findOverlap(toSeconds(newTask.getStartTime()), toSeconds(newTask.getEndTime()),
+                newTask.getId());
+        if (conflict != null) {
+            throw new IllegalArgumentException("Пересечение по времени с задачей id=" + conflict.getId());
+        }
+    }
 
-        Task floor = prioritizedTasks.floor(newTask);
-        Task ceil = prioritizedTasks.ceiling(newTask);
+    /**
+     * Проверяет пачку до изменений: каждую задачу — с уже сохранёнными, а задачи пачки — между собой.
+     * При обновлении прежние версии задач этой же пачки в конфликтах не участвуют;
+     * при создании id из запроса не учитываются — задачи всё равно получат новые.
+     */
+    private void validateBatch(List<? extends Task> batch, boolean update) {
+        IntLinkedHashSet batchIds = new IntLinkedHashSet();
+        for (Task task : batch) {
+            if (task == null) {
+                throw new IllegalArgumentException("Пустой элемент в пачке");
+            }
+            if (update && task.getId() != 0 && !batchIds.add(task.getId())) {
+                throw new IllegalArgumentException("id=" + task.getId() + " повторяется в пачке");
+            }
+        }
 
-        if (floor != null && intersects(floor, newTask)) {
-            if (oldTask != null) prioritizedTasks.add(oldTask);
-            throw new IllegalArgumentException("Пересечение по времени с задачей id=" + floor.getId());
+        List<Task> scheduled = new ArrayList<>();
+        List<Task> overlaps = new ArrayList<>();
+        for (Task task : batch) {
+            if (!isScheduled(task)) continue;
+            scheduled.add(task);
+
+            overlaps.clear();
+            timeIndex.collectOverlapping(toSeconds(task.getStartTime()), toSeconds(task.getEndTime()), overlaps);
+            for (Task other : overlaps) {
+                if (!batchIds.contains(other.getId())) {
+                    throw new IllegalArgumentException("Пересечение по времени с задачей id=" + other.getId());
+                }
+            }
         }
 
-        if (ceil != null && intersects(newTask, ceil)) {
-            if (oldTask != null) prioritizedTasks.add(oldTask);
-            throw new IllegalArgumentException("Пересечение по времени с задачей id=" + ceil.getId());
+        // после сортировки по началу любое пересечение внутри пачки видно у соседей
+        scheduled.sort(Comparator.comparing(Task::getStartTime));
+        for (int i = 1; i < scheduled.size(); i++) {
+            Task prev = scheduled.get(i - 1);
+            Task next = scheduled.get(i);
+            if (prev.getEndTime().isAfter(next.getStartTime())) {
+                throw new IllegalArgumentException("Пересечение по времени внутри пачки: «"
+                        + prev.getName() + "» и «" + next.getName() + "»");
+            }
         }
+    }
 
-        if (oldTask != null) prioritizedTasks.add(oldTask);
+    // Есть ли у задачи интервал, который участвует в проверке пересечений
+    private static boolean isScheduled(Task task) {
+        if (task == null) return false;
+
+        if (task.getStartTime() != null && task.getDuration() <= 0) {
+            throw new IllegalArgumentException("duration must be > 0 when startTime is set");
+        }
+        return task.getStartTime() != null && task.getType() != Type.EPIC;
     }
 
-    private boolean intersects(Task a, Task b) {
-        if (a.getStartTime() == null || b.getStartTime() == null) return false;
-        if (a.getEndTime() == null || b.getEndTime() == null) return false;
+    private static final class PrioritizedSnapshot {
+        private final long version;
+        private final List<Task> tasks;
+
+        PrioritizedSnapshot(long version, List<Task> tasks) {
+            this.version = version;
+            this.tasks = tasks;
+        }
+    }
 
-        return a.getStartTime().isBefore(b.getEndTime()) && b.getStartTime().isBefore(a.getEndTime());
+    private static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
     }
-}
\ No newline at end of file
+}
@@ -10,7 +10,15 @@ public final class Managers {
         return new InMemoryTaskManager(getDefaultHistory());
     }
 
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager(getConcurrentHistory());
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
+
+    public static HistoryManager getConcurrentHistory() {
+        return new ConcurrentHistoryManager();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,150 @@
+package manager;
+
+import exception.ManagerSaveException;
+import model.Task;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Загрузка CSV-снимка, прочитанного целиком в буфер одним проходом по каналу.
+ * Файл не отображается в память: отображение держит файл до сборки мусора, и на Windows
+ * последующая атомарная замена снимка падала бы.
+ * Строки сущностей режутся на куски по границам строк и разбираются параллельно,
+ * результат отдаётся вызывающему в исходном порядке файла — эпики по-прежнему раньше своих подзадач.
+ * <p>
+ * Снимок имеет вид {@code заголовок \n сущности... \n \n история}, поэтому история — последняя строка,
+ * а пустая строка перед ней отделяет сущности.
+ */
+final class ParallelCsvLoader {
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private static final byte NEWLINE = '\n';
+
+    private ParallelCsvLoader() {
+    }
+
+    /**
+     * @return {@code false}, если файл не подходит для чтения целиком (больше 2 ГБ или другая разметка) —
+     * тогда его нужно читать построчно
+     */
+    static boolean read(Path path, Consumer<Task> onEntity, IntConsumer onHistory) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0 || size > Integer.MAX_VALUE) {
+                return false;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // читаем, пока буфер не заполнится или файл не кончится
+            }
+            int length = buffer.flip().limit();
+            int headerEnd = indexOf(buffer, 0, length);
+            int historyStart = lastIndexOf(buffer, length) + 1;
+            // перед строкой истории должна стоять пустая строка-разделитель
+            if (headerEnd < 0 || historyStart < 2 || historyStart - 2 < headerEnd
+                    || buffer.get(historyStart - 2) != NEWLINE
+                    || !FileBackedTaskManager.HEADER.equals(decode(buffer, 0, headerEnd))) {
+                return false;
+            }
+
+            int entitiesStart = headerEnd + 1;
+            int entitiesEnd = historyStart - 1; // включая перевод строки последней сущности
+            List<List<Task>> parsed = parseChunks(buffer, splitChunks(buffer, entitiesStart, entitiesEnd));
+            for (List<Task> chunk : parsed) {
+                chunk.forEach(onEntity);
+            }
+
+            String history = decode(buffer, historyStart, length);
+            for (Integer id : FileBackedTaskManager.historyFromString(history)) {
+                onHistory.accept(id);
+            }
+            return true;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка загрузки файла: " + path, e);
+        }
+    }
+
+    // Границы кусков: [bounds[i], bounds[i + 1]), каждая граница — начало строки
+    private static int[] splitChunks(ByteBuffer buffer, int start, int end) {
+        int workers = Runtime.getRuntime().availableProcessors();
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, (end - start) / (workers * 4) + 1);
+
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(start);
+        int position = start;
+        while (end - position > chunkSize) {
+            int newline = indexOf(buffer, position + chunkSize, end);
+            if (newline < 0 || newline + 1 >= end) {
+                break;
+            }
+            position = newline + 1;
+            bounds.add(position);
+        }
+        bounds.add(end);
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static List<List<Task>> parseChunks(ByteBuffer buffer, int[] bounds) {
+        return IntStream.range(0, bounds.length - 1)
+                .parallel()
+                .mapToObj(i -> parseChunk(buffer.duplicate(), bounds[i], bounds[i + 1]))
+                .collect(Collectors.toList());
+    }
+
+    private static List<Task> parseChunk(ByteBuffer buffer, int start, int end) {
+        List<Task> result = new ArrayList<>();
+        byte[] line = new byte[256];
+        int position = start;
+        while (position < end) {
+            int newline = indexOf(buffer, position, end);
+            int lineEnd = newline < 0 ? end : newline;
+            int length = lineEnd - position;
+            if (length > line.length) {
+                line = new byte[Math.max(length, line.length * 2)];
+            }
+
+            buffer.position(position);
+            buffer.get(line, 0, length);
+            result.add(FileBackedTaskManager.fromString(new String(line, 0, length, StandardCharsets.UTF_8)));
+            position = lineEnd + 1;
+        }
+        return result;
+    }
+
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        ByteBuffer view = buffer.duplicate();
+        view.position(start);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == NEWLINE) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(ByteBuffer buffer, int to) {
+        for (int i = to - 1; i >= 0; i--) {
+            if (buffer.get(i) == NEWLINE) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
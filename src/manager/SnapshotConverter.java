@@ -0,0 +1,30 @@
+package manager;
+
+import enums.SnapshotFormat;
+
+import java.nio.file.Path;
+
+/**
+ * Перекладывает снимок {@link FileBackedTaskManager} между форматами CSV и двоичным.
+ * Исходный формат определяется по заголовку; непрошедший в снимок хвост журнала и журнал
+ * истории исходного файла учитываются, сами исходные файлы не меняются.
+ */
+public final class SnapshotConverter {
+    private SnapshotConverter() {
+    }
+
+    public static void convert(Path source, Path target, SnapshotFormat targetFormat) {
+        try (FileBackedTaskManager manager = FileBackedTaskManager.loadReadOnly(source)) {
+            manager.writeSnapshot(target, targetFormat, true);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.err.println("Использование: SnapshotConverter <источник> <результат> <CSV|BINARY>");
+            System.exit(2);
+        }
+
+        convert(Path.of(args[0]), Path.of(args[1]), SnapshotFormat.valueOf(args[2].toUpperCase()));
+    }
+}
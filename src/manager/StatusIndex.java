@@ -0,0 +1,72 @@
+package manager;
+
+import enums.Status;
+import model.Task;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * id одной коллекции по статусам.
+ * id выдаются подряд, поэтому множество — {@link BitSet}: изменение за O(1),
+ * а обход и страницы сразу идут по возрастанию id, без сортировки.
+ */
+final class StatusIndex {
+    private static final Status[] STATUSES = Status.values();
+
+    private final BitSet[] ids = new BitSet[STATUSES.length];
+    private final int[] counts = new int[STATUSES.length];
+
+    StatusIndex() {
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = new BitSet();
+        }
+    }
+
+    /** Ставит задачу под её текущий статус, убирая из прежнего; задача без статуса не индексируется. */
+    void put(Task task) {
+        int id = task.getId();
+        Status status = task.getStatus();
+        if (status != null && ids[status.ordinal()].get(id)) {
+            return;
+        }
+        remove(id);
+        if (status != null) {
+            ids[status.ordinal()].set(id);
+            counts[status.ordinal()]++;
+        }
+    }
+
+    // Прежний статус не запоминается: задачу могли поменять на месте, поэтому id ищется во всех множествах
+    void remove(int id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i].get(id)) {
+                ids[i].clear(id);
+                counts[i]--;
+            }
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < ids.length; i++) {
+            ids[i].clear();
+            counts[i] = 0;
+        }
+    }
+
+    int count(Status status) {
+        return counts[status.ordinal()];
+    }
+
+    /** До {@code limit} id со статусом {@code status}, больших {@code afterId}, по возрастанию. */
+    int[] page(Status status, int afterId, int limit) {
+        BitSet set = ids[status.ordinal()];
+        int[] result = new int[Math.min(limit, counts[status.ordinal()])];
+        int size = 0;
+        for (int id = set.nextSetBit(Math.max(afterId + 1, 0)); id >= 0 && size < result.length;
+             id = id == Integer.MAX_VALUE ? -1 : set.nextSetBit(id + 1)) {
+            result[size++] = id;
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+}
@@ -0,0 +1,245 @@
+package manager;
+
+import enums.Type;
+import exception.ManagerSaveException;
+import model.Task;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only журнал изменений для {@link FileBackedTaskManager}.
+ * Каждая запись — одна строка вида {@code crc|record}, где crc — CRC32 записи в hex.
+ * Недописанная последняя строка (сбой посреди записи) при чтении отбрасывается.
+ */
+final class TaskJournal {
+    private final Path path;
+    private FileOutputStream out;
+    private Writer writer;
+    private int size;
+
+    TaskJournal(Path path) {
+        this.path = path;
+    }
+
+    static Path pathFor(Path snapshot) {
+        return snapshot.resolveSibling(snapshot.getFileName() + ".wal");
+    }
+
+    static Path historyPathFor(Path snapshot) {
+        return snapshot.resolveSibling(snapshot.getFileName() + ".history");
+    }
+
+    // ---------- RECORDS ----------
+    // Сущность — в двоичной разметке снимка и Base64: в CSV-строке запятая или перевод строки в имени
+    // сдвинули бы поля или разорвали запись. Старые записи "PUT,<csv>" по-прежнему читаются
+    static String put(Task task) {
+        return "PUTB," + Base64.getEncoder().encodeToString(BinarySnapshotCodec.encodeEntity(task));
+    }
+
+    static Task entity(String payload) {
+        try {
+            return BinarySnapshotCodec.decodeEntity(Base64.getDecoder().decode(payload));
+        } catch (IllegalArgumentException e) {
+            throw new ManagerSaveException("Повреждена запись журнала: " + payload, e);
+        }
+    }
+
+    static String delete(int id) {
+        return "DEL," + id;
+    }
+
+    static String clear(Type type) {
+        return "CLEAR," + type;
+    }
+
+    static String view(int id) {
+        return "VIEW," + id;
+    }
+
+    // ---------- WRITE ----------
+    /** Записывает в буфер; на диск запись попадает при {@link #flush(boolean)}. */
+    void append(String record) {
+        try {
+            if (writer == null) {
+                out = new FileOutputStream(path.toFile(), true);
+                writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            }
+            writeRecord(writer, record);
+            size++;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи журнала: " + path, e);
+        }
+    }
+
+    /**
+     * Заменяет журнал записями {@code records}: они пишутся во временный файл, который атомарно встаёт
+     * на место журнала, — при сбое посередине остаётся прежний журнал целиком.
+     */
+    void rewrite(List<String> records, boolean fsync) {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            closeWriter();
+            try (FileOutputStream tmpOut = new FileOutputStream(tmp.toFile());
+                 Writer tmpWriter = new BufferedWriter(new OutputStreamWriter(tmpOut, StandardCharsets.UTF_8))) {
+                for (String record : records) {
+                    writeRecord(tmpWriter, record);
+                }
+                tmpWriter.flush();
+                if (fsync) {
+                    tmpOut.getChannel().force(false);
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            size = records.size();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи журнала: " + path, e);
+        }
+    }
+
+    void flush(boolean fsync) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+            if (fsync) {
+                out.getChannel().force(false);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи журнала: " + path, e);
+        }
+    }
+
+    void close() {
+        try {
+            closeWriter();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка закрытия журнала: " + path, e);
+        }
+    }
+
+    void reset() {
+        try {
+            closeWriter();
+            Files.deleteIfExists(path);
+            size = 0;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка очистки журнала: " + path, e);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean exists() {
+        return Files.exists(path);
+    }
+
+    // ---------- READ ----------
+    List<String> readAll() {
+        return readAll(true);
+    }
+
+    /** @param repair обрезать ли недописанный хвост в файле; без этого файл только читается */
+    List<String> readAll(boolean repair) {
+        List<String> records = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return records;
+        }
+
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            int start = 0;
+            while (start < bytes.length) {
+                int end = indexOf(bytes, (byte) '\n', start);
+                if (end < 0) {
+                    break; // недописанный хвост
+                }
+
+                String line = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+                String record = decode(line);
+                if (record == null) {
+                    if (end + 1 < bytes.length) {
+                        throw new ManagerSaveException("Повреждена запись журнала " + path
+                                + " на смещении " + start, null);
+                    }
+                    break; // повреждена последняя запись
+                }
+
+                records.add(record);
+                start = end + 1;
+            }
+
+            if (repair && start < bytes.length) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(start);
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения журнала: " + path, e);
+        }
+
+        size = records.size();
+        return records;
+    }
+
+    private static String decode(String line) {
+        int sep = line.indexOf('|');
+        if (sep <= 0) {
+            return null;
+        }
+
+        String record = line.substring(sep + 1);
+        try {
+            long crc = Long.parseLong(line.substring(0, sep), 16);
+            return crc == checksum(record) ? record : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void writeRecord(Writer writer, String record) throws IOException {
+        writer.write(Long.toHexString(checksum(record)));
+        writer.write('|');
+        writer.write(record);
+        writer.write('\n');
+    }
+
+    private static long checksum(String record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private static int indexOf(byte[] bytes, byte value, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void closeWriter() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            out = null;
+        }
+    }
+}
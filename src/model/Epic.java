@@ -2,16 +2,20 @@ package model;
 
 import enums.Status;
 import enums.Type;
+import util.IntLinkedHashSet;
 
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 public class Epic extends Task {
-    private final List<Integer> subtaskIds = new ArrayList<>();
+    private IntLinkedHashSet subtaskIds = new IntLinkedHashSet();
     private LocalDateTime endTime;
+    private transient EpicAggregate aggregate; // не сериализуется, создаётся при первом обращении
 
     public Epic(String name, String description) {
         super(name, description, Status.NEW);
@@ -30,8 +34,23 @@ public class Epic extends Task {
         return Type.EPIC;
     }
 
+    /** Копия id подзадач; для обхода без копирования — {@link #forEachSubtaskId}. */
     public List<Integer> getSubtaskIds() {
-        return new ArrayList<>(subtaskIds);
+        List<Integer> result = new ArrayList<>(ids().size());
+        ids().forEach(result::add);
+        return result;
+    }
+
+    public void forEachSubtaskId(IntConsumer action) {
+        ids().forEach(action);
+    }
+
+    public boolean hasSubtaskId(int subtaskId) {
+        return ids().contains(subtaskId);
+    }
+
+    public int getSubtaskCount() {
+        return ids().size();
     }
 
     @Override
@@ -43,15 +62,55 @@ public class Epic extends Task {
         this.endTime = endTime;
     }
 
+    public EpicAggregate getAggregate() {
+        if (aggregate == null) {
+            aggregate = new EpicAggregate();
+        }
+        return aggregate;
+    }
+
+    /** Привязывает подзадачу и учитывает её в агрегатах. */
+    public void addSubtask(Subtask subtask) {
+        ids().add(subtask.getId());
+        getAggregate().put(subtask);
+    }
+
+    /** Заменяет вклад уже привязанной подзадачи в агрегатах. */
+    public void updateSubtask(Subtask subtask) {
+        getAggregate().put(subtask);
+    }
+
+    /** Привязывает id без пересчёта агрегатов (например, при загрузке). */
     public void addSubtaskId(int subtaskId) {
-        subtaskIds.add(subtaskId);
+        ids().add(subtaskId);
     }
 
     public void removeSubtaskId(int subtaskId) {
-        subtaskIds.remove((Integer) subtaskId);
+        ids().remove(subtaskId);
+        getAggregate().remove(subtaskId);
     }
 
     public void clearSubtaskIds() {
-        subtaskIds.clear();
+        ids().clear();
+        getAggregate().clear();
+    }
+
+    /** Копия со статусом, окончанием и id подзадач; агрегаты в копии не переносятся. */
+    @Override
+    public Epic copy() {
+        Epic copy = new Epic(id, name, description, duration, startTime);
+        copy.status = status;
+        copy.endTime = endTime;
+        copy.version = version;
+        ids().forEach(copy.subtaskIds::add);
+        return copy;
+    }
+
+    // Gson создаёт объекты без конструктора, и без "subtaskIds" в JSON поле останется null
+    private IntLinkedHashSet ids() {
+        if (subtaskIds == null) {
+            subtaskIds = new IntLinkedHashSet();
+        }
+        return subtaskIds;
     }
 }
\ No newline at end of file
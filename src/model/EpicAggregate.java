@@ -0,0 +1,143 @@
+package model;
+
+import enums.Status;
+import util.IntObjectHashMap;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Накопительные показатели подзадач эпика: число подзадач по статусам, суммарная длительность,
+ * самое раннее начало и самое позднее окончание. Изменение одной подзадачи — O(log n),
+ * чтение показателей — O(1) или O(log n) без обхода подзадач.
+ * <p>
+ * Вклад каждой подзадачи запоминается при добавлении, поэтому удаление и замена корректны,
+ * даже если сам объект подзадачи уже изменили снаружи.
+ */
+public final class EpicAggregate {
+    private final int[] statusCounts = new int[Status.values().length];
+    private final TreeMap<LocalDateTime, Integer> starts = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Integer> ends = new TreeMap<>();
+    private IntObjectHashMap<Contribution> contributions = new IntObjectHashMap<>();
+    private long totalDuration;
+
+    /** Добавляет подзадачу или заменяет её прежний вклад. */
+    public void put(Subtask subtask) {
+        remove(subtask.getId());
+
+        Contribution c = new Contribution(subtask.getStatus(), subtask.getDuration(),
+                subtask.getStartTime(), subtask.getEndTime());
+        contributions.put(subtask.getId(), c);
+
+        if (c.status != null) {
+            statusCounts[c.status.ordinal()]++;
+        }
+        totalDuration += c.duration;
+        increment(starts, c.start);
+        increment(ends, c.end);
+    }
+
+    public void remove(int subtaskId) {
+        Contribution c = contributions.remove(subtaskId);
+        if (c == null) {
+            return;
+        }
+
+        if (c.status != null) {
+            statusCounts[c.status.ordinal()]--;
+        }
+        totalDuration -= c.duration;
+        decrement(starts, c.start);
+        decrement(ends, c.end);
+    }
+
+    /**
+     * Пересобирает агрегат по всем подзадачам сразу (массовая загрузка): таблица вкладов создаётся
+     * нужного размера, чтобы не перехешировать её по ходу заполнения.
+     */
+    public void rebuild(List<Subtask> subtasks) {
+        clear();
+        contributions = new IntObjectHashMap<>(subtasks.size());
+
+        for (Subtask subtask : subtasks) {
+            Contribution c = new Contribution(subtask.getStatus(), subtask.getDuration(),
+                    subtask.getStartTime(), subtask.getEndTime());
+            contributions.put(subtask.getId(), c);
+
+            if (c.status != null) {
+                statusCounts[c.status.ordinal()]++;
+            }
+            totalDuration += c.duration;
+            increment(starts, c.start);
+            increment(ends, c.end);
+        }
+    }
+
+    public void clear() {
+        contributions.clear();
+        starts.clear();
+        ends.clear();
+        totalDuration = 0;
+        Arrays.fill(statusCounts, 0);
+    }
+
+    public int size() {
+        return contributions.size();
+    }
+
+    public int count(Status status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    /** Нет подзадач или все NEW — NEW, все DONE — DONE, иначе IN_PROGRESS. */
+    public Status getStatus() {
+        int size = contributions.size();
+        if (size == 0 || count(Status.NEW) == size) {
+            return Status.NEW;
+        }
+        if (count(Status.DONE) == size) {
+            return Status.DONE;
+        }
+        return Status.IN_PROGRESS;
+    }
+
+    public long getTotalDuration() {
+        return totalDuration;
+    }
+
+    public LocalDateTime getEarliestStart() {
+        return starts.isEmpty() ? null : starts.firstKey();
+    }
+
+    public LocalDateTime getLatestEnd() {
+        return ends.isEmpty() ? null : ends.lastKey();
+    }
+
+    private static void increment(TreeMap<LocalDateTime, Integer> counts, LocalDateTime key) {
+        if (key != null) {
+            counts.merge(key, 1, Integer::sum);
+        }
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> counts, LocalDateTime key) {
+        if (key != null) {
+            counts.computeIfPresent(key, (k, n) -> n == 1 ? null : n - 1);
+        }
+    }
+
+    private static final class Contribution {
+        private final Status status;
+        private final long duration;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        Contribution(Status status, long duration, LocalDateTime start, LocalDateTime end) {
+            this.status = status;
+            this.duration = duration;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
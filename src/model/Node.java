@@ -2,19 +2,35 @@ package model;
 
 public class Node {
     private final Task data;
+    private final long viewedAt; // время просмотра, мс
+    private final int bytes; // оценка памяти, учтённая при добавлении в историю
     private Node next;
     private Node previous;
 
     public Node(Node previous, Task data, Node next) {
+        this(previous, data, next, 0, 0);
+    }
+
+    public Node(Node previous, Task data, Node next, long viewedAt, int bytes) {
         this.previous = previous;
         this.data = data;
         this.next = next;
+        this.viewedAt = viewedAt;
+        this.bytes = bytes;
     }
 
     public Task getData() {
         return data;
     }
 
+    public long getViewedAt() {
+        return viewedAt;
+    }
+
+    public int getBytes() {
+        return bytes;
+    }
+
     public Node getNext() {
         return next;
     }
@@ -30,4 +46,4 @@ public class Node {
     public void setPrevious(Node previous) {
         this.previous = previous;
     }
-}
\ No newline at end of file
+}
@@ -33,6 +33,13 @@ public class Subtask extends Task {
         return epicId;
     }
 
+    @Override
+    public Subtask copy() {
+        Subtask copy = new Subtask(id, name, description, status, epicId, duration, startTime);
+        copy.version = version;
+        return copy;
+    }
+
     @Override
     public String toString() {
         return id + "," +
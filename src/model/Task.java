@@ -16,6 +16,8 @@ public class Task {
     protected long duration;
     protected LocalDateTime startTime;
 
+    protected transient long version; // номер последнего изменения в менеджере, не сериализуется
+
     public Task(String name, String description, Status status) {
         this.name = name;
         this.description = description;
@@ -43,6 +45,14 @@ public class Task {
         return id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public void setId(int id) {
         this.id = id;
     }
@@ -98,6 +108,13 @@ public class Task {
         return startTime.plusMinutes(duration);
     }
 
+    /** Независимая копия текущего состояния, включая номер версии. */
+    public Task copy() {
+        Task copy = new Task(id, name, description, status, duration, startTime);
+        copy.version = version;
+        return copy;
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,55 @@
+package model;
+
+import enums.ChangeType;
+import enums.Type;
+
+/**
+ * Событие ленты изменений.
+ * {@code task} — копия сущности на момент события, её можно читать без блокировки менеджера.
+ * Для DELETED {@code task} равен null.
+ */
+public class TaskChange {
+    private final long seq;
+    private final ChangeType change;
+    private final Type type;
+    private final int id;
+    private final Task task;
+
+    public TaskChange(long seq, ChangeType change, Type type, int id, Task task) {
+        this.seq = seq;
+        this.change = change;
+        this.type = type;
+        this.id = id;
+        this.task = task;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public ChangeType getChange() {
+        return change;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskChange{" +
+                "seq=" + seq +
+                ", change=" + change +
+                ", type=" + type +
+                ", id=" + id +
+                '}';
+    }
+}
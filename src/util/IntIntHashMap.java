@@ -0,0 +1,182 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Хеш-таблица int → int с открытой адресацией (линейное пробирование) без упаковки ключей.
+ * Удаление сдвигает следующие элементы назад, поэтому «надгробий» нет и поиск не деградирует.
+ */
+public class IntIntHashMap {
+    private static final int FREE = 0;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    // ключ 0 совпадает с маркером пустой ячейки и хранится отдельно
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public IntIntHashMap() {
+        this(16);
+    }
+
+    public IntIntHashMap(int expectedSize) {
+        int capacity = tableSizeFor(expectedSize);
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    public int get(int key, int defaultValue) {
+        if (key == FREE) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int pos = mix(key) & mask;
+        int k;
+        while ((k = keys[pos]) != FREE) {
+            if (k == key) {
+                return values[pos];
+            }
+            pos = (pos + 1) & mask;
+        }
+        return defaultValue;
+    }
+
+    public boolean containsKey(int key) {
+        if (key == FREE) {
+            return hasZeroKey;
+        }
+        int pos = mix(key) & mask;
+        int k;
+        while ((k = keys[pos]) != FREE) {
+            if (k == key) {
+                return true;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return false;
+    }
+
+    public void put(int key, int value) {
+        if (key == FREE) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+
+        int pos = mix(key) & mask;
+        int k;
+        while ((k = keys[pos]) != FREE) {
+            if (k == key) {
+                values[pos] = value;
+                return;
+            }
+            pos = (pos + 1) & mask;
+        }
+
+        keys[pos] = key;
+        values[pos] = value;
+        if (++size > (mask + 1) * LOAD_FACTOR) {
+            rehash((mask + 1) * 2);
+        }
+    }
+
+    /** @return прежнее значение или {@code defaultValue}, если ключа не было */
+    public int remove(int key, int defaultValue) {
+        if (key == FREE) {
+            if (!hasZeroKey) {
+                return defaultValue;
+            }
+            hasZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+
+        int pos = mix(key) & mask;
+        int k;
+        while ((k = keys[pos]) != FREE) {
+            if (k == key) {
+                int old = values[pos];
+                size--;
+                shiftKeys(pos);
+                return old;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return defaultValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    private void shiftKeys(int pos) {
+        int last;
+        int slot;
+        int k;
+        while (true) {
+            pos = ((last = pos) + 1) & mask;
+            while (true) {
+                if ((k = keys[pos]) == FREE) {
+                    keys[last] = FREE;
+                    return;
+                }
+                slot = mix(k) & mask;
+                // элемент можно перенести в last, если его «родная» ячейка не лежит между last и pos
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = k;
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            int k = oldKeys[i];
+            if (k == FREE) {
+                continue;
+            }
+            int pos = mix(k) & mask;
+            while (keys[pos] != FREE) {
+                pos = (pos + 1) & mask;
+            }
+            keys[pos] = k;
+            values[pos] = oldValues[i];
+        }
+    }
+
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int tableSizeFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 2) / LOAD_FACTOR);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+}
@@ -0,0 +1,153 @@
+package util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Множество int с порядком вставки. Добавление, удаление и проверка — O(1), без упаковки.
+ * Элементы лежат в параллельных массивах (значение, prev, next), освободившиеся ячейки
+ * переиспользуются через список свободных.
+ * <p>
+ * Обход без аллокаций — через курсор:
+ * <pre>{@code
+ * for (int c = set.first(); c != IntLinkedHashSet.NONE; c = set.next(c)) {
+ *     int value = set.valueAt(c);
+ * }
+ * }</pre>
+ */
+public class IntLinkedHashSet {
+    public static final int NONE = -1;
+
+    private final IntIntHashMap slotByValue;
+    private int[] values;
+    private int[] prev;
+    private int[] next;
+    private int head = NONE;
+    private int tail = NONE;
+    private int freeHead = NONE;
+    private int used; // сколько ячеек массивов когда-либо занималось
+    private int size;
+
+    public IntLinkedHashSet() {
+        this(8);
+    }
+
+    public IntLinkedHashSet(int expectedSize) {
+        int capacity = Math.max(expectedSize, 1);
+        slotByValue = new IntIntHashMap(capacity);
+        values = new int[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+    }
+
+    public boolean add(int value) {
+        if (slotByValue.containsKey(value)) {
+            return false;
+        }
+
+        int slot = allocate();
+        values[slot] = value;
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if (tail == NONE) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+
+        slotByValue.put(value, slot);
+        size++;
+        return true;
+    }
+
+    public boolean remove(int value) {
+        int slot = slotByValue.remove(value, NONE);
+        if (slot == NONE) {
+            return false;
+        }
+
+        int p = prev[slot];
+        int n = next[slot];
+        if (p == NONE) {
+            head = n;
+        } else {
+            next[p] = n;
+        }
+        if (n == NONE) {
+            tail = p;
+        } else {
+            prev[n] = p;
+        }
+
+        next[slot] = freeHead;
+        freeHead = slot;
+        size--;
+        return true;
+    }
+
+    public boolean contains(int value) {
+        return slotByValue.containsKey(value);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        slotByValue.clear();
+        head = NONE;
+        tail = NONE;
+        freeHead = NONE;
+        used = 0;
+        size = 0;
+    }
+
+    // ---------- ITERATION ----------
+    public int first() {
+        return head;
+    }
+
+    public int next(int cursor) {
+        return next[cursor];
+    }
+
+    public int valueAt(int cursor) {
+        return values[cursor];
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int c = head; c != NONE; c = next[c]) {
+            action.accept(values[c]);
+        }
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size];
+        int i = 0;
+        for (int c = head; c != NONE; c = next[c]) {
+            result[i++] = values[c];
+        }
+        return result;
+    }
+
+    private int allocate() {
+        if (freeHead != NONE) {
+            int slot = freeHead;
+            freeHead = next[slot];
+            return slot;
+        }
+
+        if (used == values.length) {
+            int capacity = values.length * 2;
+            values = Arrays.copyOf(values, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        return used++;
+    }
+}
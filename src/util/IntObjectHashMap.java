@@ -0,0 +1,206 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Хеш-таблица int → объект без упаковки ключей.
+ * Индекс ключ → позиция — {@link IntIntHashMap} с открытой адресацией, сами пары лежат
+ * в плотных массивах в порядке вставки. Удаление оставляет «дыру», которая убирается
+ * уплотнением, когда дыр становится больше, чем живых элементов.
+ * <p>
+ * Порядок обхода — порядок вставки; для id, которые выдаются по возрастанию, это порядок id.
+ * Пока ключи вставляются по возрастанию, постраничная выборка {@link #valuesAfter} — O(log n + limit).
+ * Значение {@code null} не допускается: {@code get} возвращает {@code null} для отсутствующего ключа.
+ */
+public class IntObjectHashMap<V> {
+    private static final int NO_INDEX = -1;
+    private static final int MIN_COMPACT = 16;
+
+    private final IntIntHashMap indexByKey;
+    private int[] keys;
+    private Object[] values;
+    private int end; // следующая свободная позиция в плотных массивах
+    private int size;
+    private boolean ascending = true; // ключи в плотных массивах (включая дыры) идут по возрастанию
+
+    public IntObjectHashMap() {
+        this(16);
+    }
+
+    public IntObjectHashMap(int expectedSize) {
+        int capacity = Math.max(expectedSize, 4);
+        indexByKey = new IntIntHashMap(capacity);
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int index = indexByKey.get(key, NO_INDEX);
+        return index == NO_INDEX ? null : (V) values[index];
+    }
+
+    public boolean containsKey(int key) {
+        return indexByKey.containsKey(key);
+    }
+
+    /** @return прежнее значение или {@code null}; новое значение ключа сохраняет его место в порядке обхода */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "value");
+
+        int index = indexByKey.get(key, NO_INDEX);
+        if (index != NO_INDEX) {
+            V old = (V) values[index];
+            values[index] = value;
+            return old;
+        }
+
+        if (end == keys.length) {
+            grow();
+        }
+        if (end > 0 && key <= keys[end - 1]) {
+            ascending = false;
+        }
+        keys[end] = key;
+        values[end] = value;
+        indexByKey.put(key, end);
+        end++;
+        size++;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int index = indexByKey.remove(key, NO_INDEX);
+        if (index == NO_INDEX) {
+            return null;
+        }
+
+        V old = (V) values[index];
+        values[index] = null;
+        size--;
+
+        if (index == end - 1) {
+            end--;
+        }
+        int holes = end - size;
+        if (holes > MIN_COMPACT && holes > size) {
+            compact();
+        }
+        return old;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        indexByKey.clear();
+        Arrays.fill(values, 0, end, null);
+        end = 0;
+        size = 0;
+        ascending = true;
+    }
+
+    // ---------- ITERATION ----------
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        for (int i = 0; i < end; i++) {
+            Object value = values[i];
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+
+    public void forEachKey(IntConsumer action) {
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                action.accept(keys[i]);
+            }
+        }
+    }
+
+    /**
+     * До {@code limit} значений с ключом больше {@code afterKey}, по возрастанию ключа.
+     * Если ключи вставлялись не по возрастанию, выборка идёт полным проходом с сортировкой.
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> valuesAfter(int afterKey, int limit) {
+        List<V> result = new ArrayList<>(Math.min(limit, size));
+        if (limit <= 0) {
+            return result;
+        }
+
+        if (!ascending) {
+            List<Integer> candidates = new ArrayList<>();
+            forEachKey(key -> {
+                if (key > afterKey) {
+                    candidates.add(key);
+                }
+            });
+            candidates.sort(null);
+            for (int i = 0; i < candidates.size() && i < limit; i++) {
+                result.add(get(candidates.get(i)));
+            }
+            return result;
+        }
+
+        // дыры сохраняют свой ключ, поэтому массив ключей отсортирован целиком
+        int from = Arrays.binarySearch(keys, 0, end, afterKey);
+        from = from >= 0 ? from + 1 : -from - 1;
+        for (int i = from; i < end && result.size() < limit; i++) {
+            Object value = values[i];
+            if (value != null) {
+                result.add((V) value);
+            }
+        }
+        return result;
+    }
+
+    /** Копия значений в порядке обхода. */
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        forEachValue(result::add);
+        return result;
+    }
+
+    private void grow() {
+        int holes = end - size;
+        if (holes > keys.length / 4) {
+            compact(); // места хватит после уплотнения
+            return;
+        }
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    private void compact() {
+        int to = 0;
+        for (int from = 0; from < end; from++) {
+            Object value = values[from];
+            if (value == null) {
+                continue;
+            }
+            if (to != from) {
+                keys[to] = keys[from];
+                values[to] = value;
+                indexByKey.put(keys[to], to);
+            }
+            to++;
+        }
+        Arrays.fill(values, to, end, null);
+        end = to;
+    }
+}
@@ -0,0 +1,216 @@
+package util;
+
+import java.util.List;
+
+/**
+ * Дерево интервалов [start, end): AVL по (start, id), в каждом узле хранится максимальный end поддерева.
+ * Поиск пересечения — O(log n), выборка всех пересечений с окном — O(log n + k) в порядке start.
+ * Узлы доступны и по id, поэтому удалять можно, не зная прежних границ.
+ */
+public class IntervalTree<T> {
+    private final IntObjectHashMap<Node<T>> nodeById = new IntObjectHashMap<>();
+    private Node<T> root;
+
+    private static final class Node<T> {
+        final long start;
+        final long end;
+        final int id;
+        final T value;
+        long maxEnd;
+        int height = 1;
+        Node<T> left;
+        Node<T> right;
+
+        Node(long start, long end, int id, T value) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+
+    /** Добавляет интервал; прежний интервал с тем же id заменяется. */
+    public void insert(long start, long end, int id, T value) {
+        if (end < start) {
+            throw new IllegalArgumentException("end < start");
+        }
+        remove(id);
+        Node<T> node = new Node<>(start, end, id, value);
+        root = insert(root, node);
+        nodeById.put(id, node);
+    }
+
+    public boolean remove(int id) {
+        Node<T> node = nodeById.remove(id);
+        if (node == null) {
+            return false;
+        }
+        root = remove(root, node.start, node.id);
+        return true;
+    }
+
+    public boolean contains(int id) {
+        return nodeById.containsKey(id);
+    }
+
+    public int size() {
+        return nodeById.size();
+    }
+
+    public void clear() {
+        nodeById.clear();
+        root = null;
+    }
+
+    /** Любой интервал, пересекающийся с [start, end), кроме интервала с id {@code excludeId}; иначе {@code null}. */
+    public T findOverlap(long start, long end, int excludeId) {
+        Node<T> node = findOverlap(root, start, end, excludeId);
+        return node == null ? null : node.value;
+    }
+
+    /** Добавляет в {@code out} все интервалы, пересекающиеся с [start, end), по возрастанию start. */
+    public void collectOverlapping(long start, long end, List<? super T> out) {
+        collect(root, start, end, out);
+    }
+
+    // ---------- SEARCH ----------
+    private Node<T> findOverlap(Node<T> node, long start, long end, int excludeId) {
+        if (node == null || node.maxEnd <= start) {
+            return null;
+        }
+
+        Node<T> found = findOverlap(node.left, start, end, excludeId);
+        if (found != null) {
+            return found;
+        }
+        if (node.start >= end) {
+            return null; // правее начинаются ещё позже
+        }
+        if (node.id != excludeId && overlaps(node, start, end)) {
+            return node;
+        }
+        return findOverlap(node.right, start, end, excludeId);
+    }
+
+    private void collect(Node<T> node, long start, long end, List<? super T> out) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        collect(node.left, start, end, out);
+        if (node.start >= end) {
+            return;
+        }
+        if (overlaps(node, start, end)) {
+            out.add(node.value);
+        }
+        collect(node.right, start, end, out);
+    }
+
+    // Пустой интервал [s, s) пересекается с тем, что строго его накрывает — как и в проверке задач
+    private static boolean overlaps(Node<?> node, long start, long end) {
+        return node.start < end && start < node.end;
+    }
+
+    // ---------- AVL ----------
+    private Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return balance(node);
+    }
+
+    private Node<T> remove(Node<T> node, long start, int id) {
+        if (node == null) {
+            return null;
+        }
+
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node<T> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            return balance(successor);
+        }
+        return balance(node);
+    }
+
+    private Node<T> removeMin(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private static int compare(long start, int id, Node<?> node) {
+        int cmp = Long.compare(start, node.start);
+        return cmp != 0 ? cmp : Integer.compare(id, node.id);
+    }
+
+    private Node<T> balance(Node<T> node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node<?> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        if (node.right != null) maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+}
@@ -0,0 +1,120 @@
+package HttpServer.HttpHandler;
+
+import enums.Status;
+import enums.Type;
+import manager.HistoryPolicy;
+import manager.InMemoryHistoryManager;
+import manager.InMemoryTaskManager;
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistorySessionsTest {
+    private final AtomicLong now = new AtomicLong();
+    private InMemoryTaskManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new InMemoryTaskManager(new InMemoryHistoryManager());
+    }
+
+    private HistorySessions sessions(int maxSessions) {
+        return new HistorySessions(manager, HistoryPolicy.lru(100, 0), maxSessions, Duration.ofMinutes(1), now::get);
+    }
+
+    private Task createTask() {
+        return manager.createTask(new Task("T", "D", Status.NEW));
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void view_shouldCreateSessionAndKeepGlobalHistoryUntouched() {
+        HistorySessions sessions = sessions(10);
+        Task task = createTask();
+
+        assertSame(task, sessions.view("a", Type.TASK, task.getId(), manager::getTaskById));
+        assertEquals(1, sessions.size());
+        assertEquals(List.of(task.getId()), ids(sessions.history("a", 10)));
+        assertTrue(manager.getHistory().isEmpty(), "Просмотр сессии не попадает в общую историю");
+        assertTrue(sessions.history("b", 10).isEmpty(), "У другой сессии своя история");
+    }
+
+    @Test
+    void view_withoutSessionShouldUseGlobalView() {
+        HistorySessions sessions = sessions(10);
+        Task task = createTask();
+
+        assertSame(task, sessions.view((String) null, Type.TASK, task.getId(), manager::getTaskById));
+        assertEquals(0, sessions.size());
+        assertNull(sessions.history((String) null, 10));
+        assertEquals(List.of(task.getId()), ids(manager.getHistory()));
+    }
+
+    @Test
+    void view_shouldRejectOtherType() {
+        HistorySessions sessions = sessions(10);
+        Task task = createTask();
+
+        assertNull(sessions.view("a", Type.EPIC, task.getId(), manager::getEpicById));
+        assertTrue(sessions.history("a", 10).isEmpty());
+    }
+
+    @Test
+    void idleSessions_shouldExpire() {
+        HistorySessions sessions = sessions(10);
+        Task task = createTask();
+        sessions.view("a", Type.TASK, task.getId(), manager::getTaskById);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(90));
+        sessions.view("b", Type.TASK, task.getId(), manager::getTaskById);
+
+        assertEquals(1, sessions.size(), "Сессия a простаивала дольше idleTimeout");
+        assertTrue(sessions.history("a", 10).isEmpty(), "Истёкшая сессия начинается заново");
+    }
+
+    @Test
+    void fullSessions_shouldEvictLeastRecentlyUsed() {
+        HistorySessions sessions = sessions(2);
+        Task task = createTask();
+        sessions.view("a", Type.TASK, task.getId(), manager::getTaskById);
+        now.addAndGet(1_000);
+        sessions.view("b", Type.TASK, task.getId(), manager::getTaskById);
+        now.addAndGet(1_000);
+        sessions.history("a", 10); // a свежее b
+        now.addAndGet(1_000);
+
+        sessions.view("c", Type.TASK, task.getId(), manager::getTaskById);
+
+        assertEquals(2, sessions.size());
+        assertEquals(List.of(task.getId()), ids(sessions.history("a", 10)));
+        assertEquals(List.of(task.getId()), ids(sessions.history("c", 10)));
+    }
+
+    @Test
+    void history_shouldDropDeletedAndReturnCurrentEntities() {
+        HistorySessions sessions = sessions(10);
+        Task deleted = createTask();
+        Task updated = createTask();
+        sessions.view("a", Type.TASK, deleted.getId(), manager::getTaskById);
+        sessions.view("a", Type.TASK, updated.getId(), manager::getTaskById);
+
+        manager.deleteTaskById(deleted.getId());
+        Task renamed = new Task(updated.getId(), "T2", "D", Status.DONE, 0, null);
+        manager.updateTask(renamed);
+
+        List<Task> history = sessions.history("a", 10);
+        assertEquals(List.of(updated.getId()), ids(history));
+        assertEquals("T2", history.get(0).getName());
+    }
+}
@@ -1,12 +1,16 @@
 package interfaces;
 
+import enums.ChangeType;
 import enums.Status;
+import enums.Type;
 import model.Epic;
 import model.Subtask;
 import model.Task;
+import model.TaskChange;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -248,6 +252,95 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertTrue(subIds.containsAll(List.of(s1.getId(), s2.getId())));
     }
 
+    @Test
+    void getTasksPage_shouldWalkAllTasksByCursor() {
+        for (int i = 0; i < 7; i++) {
+            manager.createTask(new Task("T" + i, "D", Status.NEW));
+        }
+        manager.deleteTaskById(manager.getAllTasks().get(2).getId());
+
+        List<Integer> seen = new java.util.ArrayList<>();
+        int after = 0;
+        List<Task> page;
+        do {
+            page = manager.getTasksPage(after, 3);
+            for (Task task : page) {
+                seen.add(task.getId());
+                after = task.getId();
+            }
+        } while (page.size() == 3);
+
+        List<Integer> all = manager.getAllTasks().stream()
+                .map(Task::getId)
+                .collect(Collectors.toList());
+        assertEquals(all, seen, "Постраничный обход должен вернуть все задачи по разу и по порядку");
+        assertTrue(manager.getEpicsPage(0, 10).isEmpty());
+        assertTrue(manager.getSubtasksPage(0, 10).isEmpty());
+    }
+
+    // ---------- BATCH ----------
+    @Test
+    void createTasks_shouldRejectWholeBatch_whenItemsOverlapEachOther() {
+        LocalDateTime base = LocalDateTime.of(2025, 5, 1, 9, 0);
+        List<Task> batch = List.of(
+                new Task("A", "D", Status.NEW, 60, base),
+                new Task("B", "D", Status.NEW, 30, base.plusHours(2)),
+                new Task("C", "D", Status.NEW, 30, base.plusMinutes(30)));
+
+        assertThrows(IllegalArgumentException.class, () -> manager.createTasks(batch));
+        assertTrue(manager.getAllTasks().isEmpty(), "Пачка с пересечением не применяется частично");
+        assertTrue(manager.getPrioritizedTasks().isEmpty());
+    }
+
+    @Test
+    void createTasks_shouldCheckOverlapEvenWhenIncomingIdMatchesStoredTask() {
+        LocalDateTime base = LocalDateTime.of(2025, 5, 1, 10, 0);
+        Task stored = manager.createTask(new Task("A", "D", Status.NEW, 60, base));
+
+        assertThrows(IllegalArgumentException.class, () -> manager.createTasks(List.of(
+                new Task(stored.getId(), "B", "D", Status.NEW, 60, base))));
+        assertThrows(IllegalArgumentException.class, () -> manager.createTasks(List.of(
+                new Task(stored.getId(), "C", "D", Status.NEW, 30, base.plusHours(2)),
+                new Task(stored.getId(), "B", "D", Status.NEW, 60, base))));
+        assertEquals(List.of(stored), manager.getPrioritizedTasks());
+    }
+
+    @Test
+    void updateTasks_shouldAllowSwappingSlotsWithinBatch() {
+        LocalDateTime base = LocalDateTime.of(2025, 5, 1, 9, 0);
+        List<Task> created = manager.createTasks(List.of(
+                new Task("A", "D", Status.NEW, 60, base),
+                new Task("B", "D", Status.NEW, 60, base.plusHours(1))));
+        int a = created.get(0).getId();
+        int b = created.get(1).getId();
+
+        List<Task> updated = manager.updateTasks(List.of(
+                new Task(a, "A", "D", Status.NEW, 60, base.plusHours(1)),
+                new Task(b, "B", "D", Status.NEW, 60, base)));
+
+        assertNotNull(updated);
+        assertEquals(List.of(b, a), manager.getPrioritizedTasks().stream()
+                .map(Task::getId)
+                .collect(Collectors.toList()));
+        assertNull(manager.updateTasks(List.of(new Task(999, "X", "D", Status.NEW, 0, null))));
+    }
+
+    @Test
+    void createAndDeleteSubtasks_shouldRecalculateEpic() {
+        Epic epic = manager.createEpic(new Epic("E", "D"));
+        List<Subtask> created = manager.createSubtasks(List.of(
+                new Subtask("S1", "D", Status.DONE, epic.getId()),
+                new Subtask("S2", "D", Status.NEW, epic.getId())));
+
+        assertEquals(2, manager.getSubtasksOfEpic(epic.getId()).size());
+        assertEquals(Status.IN_PROGRESS, manager.getEpicById(epic.getId()).getStatus());
+
+        List<Subtask> removed = manager.deleteSubtasks(List.of(created.get(1).getId(), 999));
+        assertEquals(1, removed.size());
+        assertEquals(Status.DONE, manager.getEpicById(epic.getId()).getStatus());
+        assertNull(manager.createSubtasks(List.of(new Subtask("S3", "D", Status.NEW, 999))));
+    }
+
     // ---------- HISTORY via manager ----------
     @Test
     void history_shouldBeEmptyInitially() {
@@ -269,4 +362,171 @@ public abstract class TaskManagerTest<T extends TaskManager> {
 
         assertEquals(List.of(t2.getId(), t1.getId()), ids);
     }
-}
\ No newline at end of file
+
+    // ---------- TIME ----------
+    @Test
+    void createTask_shouldRejectOverlapWithScheduledTask() {
+        LocalDateTime base = LocalDateTime.of(2025, 5, 1, 9, 0);
+        manager.createTask(new Task("Long", "D", Status.NEW, 240, base)); // 09:00-13:00
+        manager.createTask(new Task("Later", "D", Status.NEW, 30, base.plusHours(5)));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.createTask(new Task("Inside", "D", Status.NEW, 10, base.plusHours(2))));
+        assertNotNull(manager.createTask(new Task("After", "D", Status.NEW, 10, base.plusHours(4))));
+    }
+
+    @Test
+    void updateTask_shouldNotConflictWithItsOwnPreviousVersion() {
+        LocalDateTime base = LocalDateTime.of(2025, 5, 1, 9, 0);
+        Task created = manager.createTask(new Task("T", "D", Status.NEW, 60, base));
+
+        Task moved = new Task(created.getId(), "T", "D", Status.NEW, 60, base.plusMinutes(30));
+        assertNotNull(manager.updateTask(moved));
+        assertEquals(base.plusMinutes(30), manager.getPrioritizedTasks().get(0).getStartTime());
+    }
+
+    @Test
+    void getPrioritizedTasks_shouldReturnOnlyTasksInWindow() {
+        LocalDateTime base = LocalDateTime.of(2025, 5, 1, 9, 0);
+        Task t1 = manager.createTask(new Task("T1", "D", Status.NEW, 60, base));
+        Epic epic = manager.createEpic(new Epic("E", "D"));
+        Subtask s1 = manager.createSubtask(new Subtask("S1", "D", Status.NEW, epic.getId(), 30, base.plusHours(2)));
+        manager.createTask(new Task("T2", "D", Status.NEW, 30, base.plusHours(5)));
+        manager.createTask(new Task("No time", "D", Status.NEW));
+
+        List<Integer> ids = manager.getPrioritizedTasks(base.plusMinutes(30), base.plusHours(3)).stream()
+                .map(Task::getId)
+                .collect(Collectors.toList());
+
+        assertEquals(List.of(t1.getId(), s1.getId()), ids);
+        assertEquals(3, manager.getPrioritizedTasks(null, null).size());
+    }
+
+    @Test
+    void getPrioritizedTasks_shouldReuseSnapshotUntilChanged() {
+        Task task = manager.createTask(new Task("T", "D", Status.NEW));
+        long version = manager.getPrioritizedVersion();
+        List<Task> first = manager.getPrioritizedTasks();
+
+        manager.getTaskById(task.getId());
+        manager.createEpic(new Epic("E", "D")); // эпики в список приоритетов не входят
+        assertSame(first, manager.getPrioritizedTasks());
+        assertEquals(version, manager.getPrioritizedVersion());
+        assertThrows(UnsupportedOperationException.class, () -> first.add(task));
+
+        manager.createTask(new Task("T2", "D", Status.NEW));
+        assertTrue(manager.getPrioritizedVersion() > version);
+        assertEquals(2, manager.getPrioritizedTasks().size());
+        assertEquals(1, first.size(), "Выданный ранее снимок не меняется");
+    }
+
+    @Test
+    void versions_shouldGrowOnChangesOnly() {
+        Task task = manager.createTask(new Task("T", "D", Status.NEW));
+        Epic epic = manager.createEpic(new Epic("E", "D"));
+        long tasksVersion = manager.getVersion(Type.TASK);
+        long taskVersion = task.getVersion();
+        long epicVersion = manager.getEpicById(epic.getId()).getVersion();
+        long historyVersion = manager.getHistoryVersion();
+
+        manager.getTaskById(task.getId());
+        assertEquals(tasksVersion, manager.getVersion(Type.TASK), "Просмотр не меняет задачи");
+        assertTrue(manager.getHistoryVersion() > historyVersion);
+
+        manager.updateTask(new Task(task.getId(), "T2", "D", Status.DONE, 0, null));
+        assertTrue(manager.getVersion(Type.TASK) > tasksVersion);
+        assertTrue(manager.getTaskById(task.getId()).getVersion() > taskVersion);
+
+        manager.createSubtask(new Subtask("S", "D", Status.NEW, epic.getId()));
+        assertTrue(manager.getEpicById(epic.getId()).getVersion() > epicVersion, "Подзадача меняет эпик");
+        assertTrue(manager.getVersion(Type.EPIC) > 0);
+    }
+
+    @Test
+    void changeLog_shouldRecordMutationsInOrder() {
+        long since = manager.getChangeLog().getLastSeq();
+        Epic epic = manager.createEpic(new Epic("E", "D"));
+        Subtask subtask = manager.createSubtask(new Subtask("S", "D", Status.NEW, epic.getId()));
+        manager.getSubtaskById(subtask.getId());
+        manager.deleteEpicById(epic.getId());
+
+        List<String> events = manager.getChangeLog().since(since, 100).stream()
+                .map(change -> change.getChange() + " " + change.getId())
+                .collect(Collectors.toList());
+        assertEquals(List.of(
+                ChangeType.CREATED + " " + epic.getId(),
+                ChangeType.CREATED + " " + subtask.getId(),
+                ChangeType.UPDATED + " " + epic.getId(),
+                ChangeType.DELETED + " " + subtask.getId(),
+                ChangeType.DELETED + " " + epic.getId()), events, "Просмотр в ленту не попадает");
+        TaskChange first = manager.getChangeLog().since(since, 1).get(0);
+        Epic snapshot = (Epic) first.getTask();
+        assertNotSame(epic, snapshot, "В событии копия, а не сама сущность");
+        assertEquals("E", snapshot.getName());
+        assertEquals(0, snapshot.getSubtaskCount(), "Копия не видит подзадачу, добавленную позже");
+    }
+
+    @Test
+    void findById_shouldFindAnyTypeWithoutRecordingView() {
+        Task task = manager.createTask(new Task("T", "D", Status.NEW));
+        Epic epic = manager.createEpic(new Epic("E", "D"));
+        Subtask subtask = manager.createSubtask(new Subtask("S", "D", Status.NEW, epic.getId()));
+
+        assertSame(task, manager.findById(task.getId()));
+        assertSame(epic, manager.findById(epic.getId()));
+        assertSame(subtask, manager.findById(subtask.getId()));
+        assertNull(manager.findById(999));
+        assertTrue(manager.getHistory().isEmpty());
+    }
+
+    @Test
+    void byStatus_shouldFollowCreateUpdateDelete() {
+        Task t1 = manager.createTask(new Task("T1", "D", Status.NEW));
+        Task t2 = manager.createTask(new Task("T2", "D", Status.DONE));
+        Task t3 = manager.createTask(new Task("T3", "D", Status.NEW));
+
+        manager.updateTask(new Task(t1.getId(), "T1", "D", Status.DONE, 0, null));
+        manager.deleteTaskById(t2.getId());
+
+        assertEquals(List.of(t3.getId()), manager.getTasksByStatus(Status.NEW).stream()
+                .map(Task::getId).collect(Collectors.toList()));
+        assertEquals(List.of(t1.getId()), manager.getTasksByStatus(Status.DONE).stream()
+                .map(Task::getId).collect(Collectors.toList()));
+        assertEquals(1, manager.countByStatus(Type.TASK, Status.DONE));
+        assertTrue(manager.getTasksByStatus(Status.IN_PROGRESS).isEmpty());
+    }
+
+    @Test
+    void byStatus_shouldTrackEpicStatusAndPages() {
+        Epic epic = manager.createEpic(new Epic("E", "D"));
+        assertEquals(1, manager.countByStatus(Type.EPIC, Status.NEW));
+
+        Subtask s1 = manager.createSubtask(new Subtask("S1", "D", Status.DONE, epic.getId()));
+        Subtask s2 = manager.createSubtask(new Subtask("S2", "D", Status.DONE, epic.getId()));
+        Subtask s3 = manager.createSubtask(new Subtask("S3", "D", Status.DONE, epic.getId()));
+        assertEquals(List.of(epic), manager.getEpicsByStatus(Status.DONE));
+
+        List<Subtask> page = manager.getSubtasksByStatus(Status.DONE, s1.getId(), 1);
+        assertEquals(List.of(s2), page);
+        assertEquals(List.of(s3), manager.getSubtasksByStatus(Status.DONE, s2.getId(), 10));
+
+        manager.deleteAllSubtasks();
+        assertEquals(0, manager.countByStatus(Type.SUBTASK, Status.DONE));
+        assertEquals(List.of(epic), manager.getEpicsByStatus(Status.NEW));
+
+        manager.deleteAllEpics();
+        assertTrue(manager.getEpicsByStatus(Status.NEW).isEmpty());
+    }
+
+    @Test
+    void deleteEpicById_shouldFreeTimeOfItsSubtasks() {
+        LocalDateTime base = LocalDateTime.of(2025, 5, 1, 9, 0);
+        Epic epic = manager.createEpic(new Epic("E", "D"));
+        manager.createSubtask(new Subtask("S1", "D", Status.NEW, epic.getId(), 30, base));
+
+        manager.deleteEpicById(epic.getId());
+
+        assertTrue(manager.getPrioritizedTasks().isEmpty());
+        assertNotNull(manager.createTask(new Task("T", "D", Status.NEW, 30, base)));
+    }
+}
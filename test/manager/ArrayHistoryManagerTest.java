@@ -0,0 +1,107 @@
+package manager;
+
+import enums.Status;
+import interfaces.HistoryManager;
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrayHistoryManagerTest {
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).collect(Collectors.toList());
+    }
+
+    private static Task task(int id) {
+        return new Task(id, "T" + id, "D", Status.NEW, 0, null);
+    }
+
+    @Test
+    void add_shouldMoveRepeatedViewToEnd() {
+        HistoryManager history = new ArrayHistoryManager();
+        history.add(task(1));
+        history.add(task(2));
+        history.add(task(3));
+        history.add(task(1));
+
+        assertEquals(List.of(2, 3, 1), ids(history.getHistory()));
+        assertEquals(List.of(3, 1), ids(history.getHistory(2)));
+    }
+
+    @Test
+    void remove_shouldReuseFreedSlots() {
+        ArrayHistoryManager history = new ArrayHistoryManager(HistoryPolicy.unbounded(), 4);
+        for (int id = 1; id <= 4; id++) {
+            history.add(task(id));
+        }
+        history.remove(2);
+        history.remove(1);
+        history.add(task(5));
+        history.add(task(6));
+        history.remove(999);
+
+        assertEquals(List.of(3, 4, 5, 6), ids(history.getHistory()));
+        assertEquals(4, history.size());
+    }
+
+    @Test
+    void shouldMatchLinkedHistoryOnRandomOperations() {
+        HistoryManager linked = new InMemoryHistoryManager();
+        HistoryManager array = new ArrayHistoryManager(HistoryPolicy.unbounded(), 4);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 10_000; i++) {
+            int id = random.nextInt(200);
+            if (random.nextInt(3) == 0) {
+                linked.remove(id);
+                array.remove(id);
+            } else {
+                Task task = task(id);
+                linked.add(task);
+                array.add(task);
+            }
+        }
+        assertEquals(ids(linked.getHistory()), ids(array.getHistory()));
+        assertEquals(ids(linked.getHistory(17)), ids(array.getHistory(17)));
+    }
+
+    @Test
+    void lru_shouldEvictOldestOverLimits() {
+        ArrayHistoryManager history = new ArrayHistoryManager(HistoryPolicy.lru(3, 0));
+        for (int id = 1; id <= 5; id++) {
+            history.add(task(id));
+        }
+        assertEquals(List.of(3, 4, 5), ids(history.getHistory()));
+
+        long entry = HistoryPolicy.estimateBytes(task(1));
+        ArrayHistoryManager byBytes = new ArrayHistoryManager(HistoryPolicy.lru(0, entry * 2));
+        for (int id = 1; id <= 5; id++) {
+            byBytes.add(task(id));
+        }
+        assertEquals(List.of(4, 5), ids(byBytes.getHistory()));
+        assertEquals(entry * 2, byBytes.getEstimatedBytes());
+    }
+
+    @Test
+    void timeWindow_shouldDropViewsOlderThanWindow() {
+        AtomicLong now = new AtomicLong();
+        ArrayHistoryManager history = new ArrayHistoryManager(
+                HistoryPolicy.timeWindow(Duration.ofSeconds(10), 0, 0), 16, now::get);
+
+        history.add(task(1));
+        now.addAndGet(6_000);
+        history.add(task(2));
+        now.addAndGet(6_000);
+
+        assertTrue(history.expire());
+        assertEquals(List.of(2), ids(history.getHistory()));
+        assertEquals(1, history.size());
+    }
+}
@@ -0,0 +1,77 @@
+package manager;
+
+import enums.ChangeType;
+import enums.Status;
+import model.Task;
+import model.TaskChange;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeLogTest {
+
+    private static Task task(int id) {
+        return new Task(id, "T" + id, "D", Status.NEW, 0, null);
+    }
+
+    @Test
+    void since_shouldReturnEventsAfterSeqInOrder() {
+        ChangeLog log = new ChangeLog(8);
+        log.append(ChangeType.CREATED, task(1));
+        log.append(ChangeType.UPDATED, task(1));
+        log.append(ChangeType.DELETED, task(1));
+
+        List<TaskChange> changes = log.since(1, 10);
+        assertEquals(List.of(2L, 3L), changes.stream().map(TaskChange::getSeq).collect(Collectors.toList()));
+        assertNull(changes.get(1).getTask(), "Удалённая сущность в событие не попадает");
+        assertEquals(1, log.since(0, 1).size());
+        assertTrue(log.since(3, 10).isEmpty());
+    }
+
+    @Test
+    void since_shouldReturnNullWhenEventsEvicted() {
+        ChangeLog log = new ChangeLog(4);
+        for (int i = 1; i <= 10; i++) {
+            log.append(ChangeType.CREATED, task(i));
+        }
+
+        assertNull(log.since(5, 10), "События 6 уже нет в буфере");
+        assertEquals(4, log.since(6, 10).size());
+        assertNull(log.since(11, 10), "since из будущего — лента другого запуска");
+    }
+
+    @Test
+    void clear_shouldKeepNumbering() {
+        ChangeLog log = new ChangeLog(4);
+        log.append(ChangeType.CREATED, task(1));
+        log.clear();
+
+        assertNull(log.since(0, 10));
+        assertTrue(log.since(1, 10).isEmpty());
+        log.append(ChangeType.CREATED, task(2));
+        assertEquals(2, log.since(1, 10).get(0).getSeq());
+    }
+
+    @Test
+    void await_shouldWakeUpOnAppend() throws Exception {
+        ChangeLog log = new ChangeLog(4);
+        assertTrue(log.await(0, 10, 10).isEmpty(), "Без событий ожидание заканчивается по таймауту");
+
+        CompletableFuture<List<TaskChange>> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return log.await(0, 10, 5_000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        log.append(ChangeType.CREATED, task(1));
+
+        assertEquals(1, waiting.get(1, TimeUnit.SECONDS).size());
+    }
+}
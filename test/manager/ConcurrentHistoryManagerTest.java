@@ -0,0 +1,83 @@
+package manager;
+
+import enums.Status;
+import interfaces.HistoryManager;
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHistoryManagerTest {
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).collect(Collectors.toList());
+    }
+
+    private static Task task(int id) {
+        return new Task(id, "T" + id, "D", Status.NEW, 0, null);
+    }
+
+    @Test
+    void shouldMatchLinkedHistoryInSingleThread() {
+        HistoryManager linked = new InMemoryHistoryManager();
+        HistoryManager concurrent = new ConcurrentHistoryManager(new ArrayHistoryManager(), 4, 16);
+        Random random = new Random(7);
+
+        for (int i = 0; i < 5_000; i++) {
+            int id = random.nextInt(100);
+            if (random.nextInt(4) == 0) {
+                linked.remove(id);
+                concurrent.remove(id);
+            } else {
+                linked.add(task(id));
+                concurrent.add(task(id));
+            }
+        }
+        assertEquals(ids(linked.getHistory()), ids(concurrent.getHistory()));
+        assertEquals(ids(linked.getHistory(5)), ids(concurrent.getHistory(5)));
+    }
+
+    @Test
+    void remove_shouldNotBeUndoneByEarlierBufferedView() {
+        HistoryManager history = new ConcurrentHistoryManager(new ArrayHistoryManager(), 4, 1_000);
+        history.add(task(1));
+        history.add(task(2));
+        history.remove(1);
+
+        assertEquals(List.of(2), ids(history.getHistory()));
+    }
+
+    @Test
+    void concurrentViews_shouldAllEndUpInHistoryOnce() throws Exception {
+        HistoryManager history = new ConcurrentHistoryManager(new ArrayHistoryManager(), 8, 64);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int t = 0; t < 8; t++) {
+            final int thread = t;
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 10_000; i++) {
+                    history.add(task((thread * 10_000 + i) % 500));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        List<Integer> ids = ids(history.getHistory());
+        assertEquals(500, ids.size());
+        assertEquals(500, new HashSet<>(ids).size(), "Повторов в истории нет");
+    }
+}
@@ -0,0 +1,62 @@
+package manager;
+
+import enums.Status;
+import interfaces.TaskManager;
+import interfaces.TaskManagerTest;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<TaskManager> {
+    @Override
+    protected TaskManager createManager() {
+        return Managers.getConcurrent();
+    }
+
+    @Test
+    void concurrentCreatesAndReads_shouldKeepIdsUniqueAndStateConsistent() throws Exception {
+        Epic epic = manager.createEpic(new Epic("E", "D"));
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 400; i++) {
+            final int n = i;
+            futures.add(pool.submit(() -> {
+                Task created = n % 2 == 0
+                        ? manager.createTask(new Task("T" + n, "D", Status.NEW, 10,
+                                LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(10L * n)))
+                        : manager.createSubtask(new Subtask("S" + n, "D", Status.DONE, epic.getId()));
+                manager.getTaskById(created.getId());
+                manager.getAllTasks();
+                manager.getPrioritizedTasks();
+                return created.getId();
+            }));
+        }
+
+        Set<Integer> ids = new HashSet<>();
+        for (Future<Integer> f : futures) {
+            ids.add(f.get());
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(400, ids.size(), "id не должны повторяться");
+        assertEquals(200, manager.getAllTasks().size());
+        assertEquals(200, manager.getSubtasksOfEpic(epic.getId()).size());
+        assertEquals(Status.DONE, manager.getEpicById(epic.getId()).getStatus());
+        assertEquals(400, manager.getPrioritizedTasks().size());
+    }
+}
@@ -1,6 +1,11 @@
 package manager;
 
+import enums.Durability;
+import enums.PersistenceMode;
+import enums.SnapshotFormat;
+import exception.ManagerSaveException;
 import enums.Status;
+import enums.Type;
 import interfaces.TaskManager;
 import interfaces.TaskManagerTest;
 import model.Epic;
@@ -9,8 +14,13 @@ import model.Task;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -166,4 +176,382 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         assertEquals(LocalDateTime.of(2025, 3, 1, 9, 0), loadedEpic.getStartTime());
         assertEquals(LocalDateTime.of(2025, 3, 1, 11, 15), loadedEpic.getEndTime());
     }
-}
\ No newline at end of file
+
+    @Test
+    void loadFromFile_shouldRestoreSnapshotSplitIntoSeveralChunks() {
+        Path path = file();
+        FileBackedTaskManager manager = new FileBackedTaskManager(path, PersistenceMode.SNAPSHOT,
+                FlushPolicy.writeBehind(Integer.MAX_VALUE, Duration.ofDays(1), Durability.NONE));
+        Epic epic = manager.createEpic(new Epic("E", "D"));
+        for (int i = 0; i < 20_000; i++) { // снимок заметно больше минимального куска в 1 МБ
+            manager.createSubtask(new Subtask("Подзадача " + i, "Описание подзадачи", Status.DONE, epic.getId(),
+                    1, LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(2L * i)));
+            manager.createTask(new Task("Задача " + i, "Описание задачи", Status.NEW));
+        }
+        manager.getEpicById(epic.getId());
+        manager.close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(path);
+
+        assertEquals(20_000, loaded.getAllTasks().size());
+        assertEquals(20_000, loaded.getSubtasksOfEpic(epic.getId()).size());
+        assertEquals(manager.getAllSubtasks(), loaded.getAllSubtasks(), "Порядок строк сохраняется");
+        assertEquals(Status.DONE, loaded.getEpicById(epic.getId()).getStatus());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(2L * 19_999 + 1),
+                loaded.getEpicById(epic.getId()).getEndTime());
+        assertEquals(java.util.List.of(epic.getId()),
+                loaded.getHistory().stream().map(Task::getId).collect(Collectors.toList()));
+    }
+
+    // ---------- Двоичный снимок ----------
+
+    @Test
+    void binarySnapshot_shouldRoundTripTextAndTimes() {
+        Path path = tempDir.resolve("tasks.bin");
+        FileBackedTaskManager manager = new FileBackedTaskManager(path, PersistenceMode.SNAPSHOT,
+                FileBackedTaskManager.DEFAULT_SNAPSHOT_EVERY, FlushPolicy.writeThrough(), SnapshotFormat.BINARY);
+        LocalDateTime withSeconds = LocalDateTime.of(2025, 5, 1, 9, 0, 17, 500);
+
+        Task task = manager.createTask(new Task("Купить, отнести", "строка 1\nстрока 2", Status.NEW, 15, withSeconds));
+        Epic epic = manager.createEpic(new Epic("E", "D"));
+        Subtask sub = manager.createSubtask(new Subtask("S", "D", Status.DONE, epic.getId(), 30,
+                LocalDateTime.of(1960, 1, 1, 12, 0)));
+        manager.getSubtaskById(sub.getId());
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(path);
+        assertEquals(sub.getId(), loaded.getHistory().get(0).getId());
+        Task loadedTask = loaded.getTaskById(task.getId());
+        assertEquals("Купить, отнести", loadedTask.getName());
+        assertEquals("строка 1\nстрока 2", loadedTask.getDescription());
+        assertEquals(withSeconds, loadedTask.getStartTime());
+        assertEquals(LocalDateTime.of(1960, 1, 1, 12, 0), loaded.getSubtaskById(sub.getId()).getStartTime());
+        assertEquals(Status.DONE, loaded.getEpicById(epic.getId()).getStatus());
+
+        loaded.createTask(new Task("T2", "D", Status.NEW));
+        assertEquals(2, FileBackedTaskManager.loadFromFile(path).getAllTasks().size(),
+                "Загруженный менеджер продолжает писать в формате файла");
+    }
+
+    @Test
+    void snapshotConverter_shouldConvertBothWays() throws Exception {
+        Path csv = file();
+        FileBackedTaskManager manager = new FileBackedTaskManager(csv);
+        Epic epic = manager.createEpic(new Epic("E", "D"));
+        manager.createSubtask(new Subtask("S", "D", Status.IN_PROGRESS, epic.getId(), 30,
+                LocalDateTime.of(2025, 5, 1, 9, 0)));
+        manager.createTask(new Task("T", "D", Status.NEW));
+        manager.getEpicById(epic.getId());
+
+        Path binary = tempDir.resolve("tasks.bin");
+        SnapshotConverter.convert(csv, binary, SnapshotFormat.BINARY);
+        Path back = tempDir.resolve("back.csv");
+        SnapshotConverter.convert(binary, back, SnapshotFormat.CSV);
+
+        assertTrue(Files.size(binary) < Files.size(csv));
+        FileBackedTaskManager original = FileBackedTaskManager.loadFromFile(csv);
+        FileBackedTaskManager converted = FileBackedTaskManager.loadFromFile(back);
+        assertEquals(original.getAllSubtasks().toString(), converted.getAllSubtasks().toString());
+        assertEquals(original.getAllEpics().toString(), converted.getAllEpics().toString());
+        assertEquals(original.getAllTasks().toString(), converted.getAllTasks().toString());
+        assertEquals(original.getHistory(), converted.getHistory(), "История из журнала истории попадает в снимок");
+    }
+
+    @Test
+    void snapshotConverter_shouldNotRepairSourceJournals() throws Exception {
+        Path csv = file();
+        FileBackedTaskManager manager = new FileBackedTaskManager(csv);
+        Task task = manager.createTask(new Task("T", "D", Status.NEW));
+        manager.getTaskById(task.getId());
+
+        Path historyLog = csv.resolveSibling(csv.getFileName() + ".history");
+        Files.write(historyLog, "1a2b|VIEW,".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        byte[] before = Files.readAllBytes(historyLog);
+
+        Path binary = tempDir.resolve("tasks.bin");
+        SnapshotConverter.convert(csv, binary, SnapshotFormat.BINARY);
+
+        assertArrayEquals(before, Files.readAllBytes(historyLog), "Недописанный хвост исходника не обрезается");
+        assertEquals(List.of(task), FileBackedTaskManager.loadFromFile(binary).getHistory());
+    }
+
+    @Test
+    void binaryJournal_shouldKeepCommasAndNewlinesAcrossCompaction() {
+        Path path = tempDir.resolve("tasks.bin");
+        FileBackedTaskManager manager = new FileBackedTaskManager(path, PersistenceMode.JOURNAL, 2,
+                FlushPolicy.writeThrough(), SnapshotFormat.BINARY);
+        Epic epic = manager.createEpic(new Epic("E,1", "D\nD"));
+        manager.createSubtask(new Subtask("S,1", "x\ny", Status.DONE, epic.getId())); // вторая запись -> снимок
+        Task task = manager.createTask(new Task("T,\n", "\n,", Status.NEW)); // уже в журнале
+        manager.close();
+        assertTrue(BinarySnapshotCodec.isBinary(path), "Журнал свёрнут в двоичный снимок");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(path, PersistenceMode.JOURNAL);
+        assertEquals("E,1", loaded.getEpicById(epic.getId()).getName());
+        assertEquals("x\ny", loaded.getAllSubtasks().get(0).getDescription());
+        assertEquals("T,\n", loaded.getTaskById(task.getId()).getName());
+        assertEquals("\n,", loaded.getTaskById(task.getId()).getDescription());
+    }
+
+    @Test
+    void binarySnapshot_shouldRejectCorruptedFile() throws Exception {
+        Path path = tempDir.resolve("tasks.bin");
+        FileBackedTaskManager manager = new FileBackedTaskManager(path, PersistenceMode.SNAPSHOT,
+                FileBackedTaskManager.DEFAULT_SNAPSHOT_EVERY, FlushPolicy.writeThrough(), SnapshotFormat.BINARY);
+        manager.createTask(new Task("T", "D", Status.NEW));
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 0x10;
+        Files.write(path, bytes);
+
+        assertThrows(ManagerSaveException.class, () -> FileBackedTaskManager.loadFromFile(path));
+    }
+
+    // ---------- Журнал ----------
+
+    @Test
+    void journal_shouldRestoreStateFromLogWithoutSnapshot() {
+        Path path = file();
+        FileBackedTaskManager manager = new FileBackedTaskManager(path, PersistenceMode.JOURNAL);
+
+        Task t1 = manager.createTask(new Task("T1", "D1", Status.NEW));
+        Epic e1 = manager.createEpic(new Epic("E1", "ED"));
+        Subtask s1 = manager.createSubtask(new Subtask("S1", "SD", Status.DONE, e1.getId()));
+        Task t2 = manager.createTask(new Task("T2", "D2", Status.NEW));
+        manager.deleteTaskById(t2.getId());
+        manager.getTaskById(t1.getId());
+        manager.getSubtaskById(s1.getId());
+
+        assertFalse(Files.exists(path), "Снимок не пишется до порога сворачивания журнала");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(path, PersistenceMode.JOURNAL);
+
+        assertEquals(1, loaded.getAllTasks().size());
+        assertNull(loaded.getTaskById(t2.getId()));
+        assertEquals(Status.DONE, loaded.getEpicById(e1.getId()).getStatus());
+        assertEquals(java.util.List.of(t1.getId(), s1.getId(), e1.getId()),
+                loaded.getHistory().stream().map(Task::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void journal_shouldKeepCommasAndNewlinesInFields() {
+        Path path = file();
+        FileBackedTaskManager manager = new FileBackedTaskManager(path, PersistenceMode.JOURNAL);
+        Task tricky = manager.createTask(new Task("a,b", "line1\nline2", Status.NEW));
+        Task plain = manager.createTask(new Task("T", "D", Status.NEW));
+        manager.close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(path, PersistenceMode.JOURNAL);
+        assertEquals("a,b", loaded.getTaskById(tricky.getId()).getName());
+        assertEquals("line1\nline2", loaded.getTaskById(tricky.getId()).getDescription());
+        assertNotNull(loaded.getTaskById(plain.getId()));
+    }
+
+    @Test
+    void journal_shouldStillReadLegacyCsvPutRecords() throws Exception {
+        Path path = file();
+        String record = "PUT,7,TASK,Old,NEW,D,,0,,";
+        java.util.zip.CRC32 crc = new java.util.zip.CRC32();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        Files.write(path.resolveSibling(path.getFileName() + ".wal"),
+                (Long.toHexString(crc.getValue()) + "|" + record + "\n").getBytes(StandardCharsets.UTF_8));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(path, PersistenceMode.JOURNAL);
+        assertEquals("Old", loaded.getTaskById(7).getName());
+    }
+
+    @Test
+    void journal_shouldCompactIntoSnapshot() {
+        Path path = file();
+        FileBackedTaskManager manager = new FileBackedTaskManager(path, PersistenceMode.JOURNAL, 3);
+
+        Task t1 = manager.createTask(new Task("T1", "D1", Status.NEW));
+        manager.createTask(new Task("T2", "D2", Status.NEW));
+        manager.createTask(new Task("T3", "D3", Status.NEW)); // третья запись -> снимок
+        manager.updateTask(new Task(t1.getId(), "T1*", "D1", Status.DONE, 0, null));
+
+        assertTrue(Files.exists(path));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(path, PersistenceMode.JOURNAL);
+        assertEquals(3, loaded.getAllTasks().size());
+        assertEquals("T1*", loaded.getTaskById(t1.getId()).getName());
+
+        Task t4 = loaded.createTask(new Task("T4", "D4", Status.NEW));
+        assertTrue(t4.getId() > t1.getId() + 2, "Счётчик id восстанавливается из снимка и журнала");
+    }
+
+    @Test
+    void journal_shouldCompactHistoryLogInPlace() throws Exception {
+        Path path = file();
+        FileBackedTaskManager manager = new FileBackedTaskManager(path, PersistenceMode.JOURNAL);
+        Task t1 = manager.createTask(new Task("T1", "D1", Status.NEW));
+        Task t2 = manager.createTask(new Task("T2", "D2", Status.NEW));
+        for (int i = 0; i < 5_000; i++) { // 10 000 просмотров — порог сворачивания журнала истории
+            manager.getTaskById(t2.getId());
+            manager.getTaskById(t1.getId());
+        }
+
+        Path historyLog = path.resolveSibling(path.getFileName() + ".history");
+        assertEquals(2, Files.readAllLines(historyLog).size(), "Журнал истории свёрнут до текущей истории");
+        assertFalse(Files.exists(historyLog.resolveSibling(historyLog.getFileName() + ".tmp")));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(path, PersistenceMode.JOURNAL);
+        assertEquals(List.of(t2.getId(), t1.getId()),
+                loaded.getHistory().stream().map(Task::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void journal_shouldIgnoreTornLastRecord() throws Exception {
+        Path path = file();
+        FileBackedTaskManager manager = new FileBackedTaskManager(path, PersistenceMode.JOURNAL);
+        Task t1 = manager.createTask(new Task("T1", "D1", Status.NEW));
+
+        Path wal = path.resolveSibling(path.getFileName() + ".wal");
+        Files.write(wal, "1a2b|PUT,2,TASK,T2,NE".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(path, PersistenceMode.JOURNAL);
+        assertEquals(1, loaded.getAllTasks().size());
+        assertNotNull(loaded.getTaskById(t1.getId()));
+
+        loaded.createTask(new Task("T2", "D2", Status.NEW));
+        assertEquals(2, FileBackedTaskManager.loadFromFile(path, PersistenceMode.JOURNAL).getAllTasks().size(),
+                "После обрезки хвоста журнал продолжает писаться корректно");
+    }
+
+    @Test
+    void loadFromFile_inSnapshotMode_shouldFoldLeftoverJournal() {
+        Path path = file();
+        FileBackedTaskManager manager = new FileBackedTaskManager(path, PersistenceMode.JOURNAL);
+        manager.createTask(new Task("T1", "D1", Status.NEW));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(path);
+
+        assertEquals(1, loaded.getAllTasks().size());
+        assertTrue(Files.exists(path));
+        assertFalse(Files.exists(path.resolveSibling(path.getFileName() + ".wal")));
+    }
+
+    @Test
+    void batch_shouldBeWrittenWithSingleJournalFlush() throws Exception {
+        Path path = file();
+        FileBackedTaskManager manager = new FileBackedTaskManager(path, PersistenceMode.JOURNAL, 3);
+        Epic epic = manager.createEpic(new Epic("E", "D"));
+
+        manager.createSubtasks(java.util.List.of(
+                new Subtask("S1", "D", Status.DONE, epic.getId()),
+                new Subtask("S2", "D", Status.DONE, epic.getId()),
+                new Subtask("S3", "D", Status.DONE, epic.getId())));
+        Path wal = path.resolveSibling(path.getFileName() + ".wal");
+        assertTrue(Files.exists(path), "Порог сворачивания проверяется один раз после всей пачки");
+        assertFalse(Files.exists(wal));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(path, PersistenceMode.JOURNAL);
+        assertEquals(3, loaded.getAllSubtasks().size());
+        assertEquals(Status.DONE, loaded.getEpicById(epic.getId()).getStatus());
+    }
+
+    // ---------- Отложенная запись ----------
+
+    @Test
+    void writeBehind_shouldCoalesceMutationsIntoBatches() {
+        Path path = file();
+        FileBackedTaskManager manager = new FileBackedTaskManager(path, PersistenceMode.SNAPSHOT,
+                FlushPolicy.writeBehind(3, Duration.ofHours(1), Durability.SYNC_PER_BATCH));
+
+        manager.createTask(new Task("T1", "D1", Status.NEW));
+        manager.createTask(new Task("T2", "D2", Status.NEW));
+        assertFalse(Files.exists(path), "До заполнения пачки на диск ничего не пишется");
+
+        manager.createTask(new Task("T3", "D3", Status.NEW));
+        assertEquals(3, FileBackedTaskManager.loadFromFile(path).getAllTasks().size());
+
+        manager.createTask(new Task("T4", "D4", Status.NEW));
+        manager.flush();
+        assertEquals(4, FileBackedTaskManager.loadFromFile(path).getAllTasks().size());
+        manager.close();
+    }
+
+    @Test
+    void writeBehind_closeShouldFlushPendingJournalRecords() {
+        Path path = file();
+        FileBackedTaskManager manager = new FileBackedTaskManager(path, PersistenceMode.JOURNAL,
+                FlushPolicy.writeBehind(100, Duration.ofHours(1), Durability.PERIODIC_FSYNC));
+
+        manager.createTask(new Task("T1", "D1", Status.NEW));
+        manager.createEpic(new Epic("E1", "D"));
+        manager.close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(path, PersistenceMode.JOURNAL);
+        assertEquals(1, loaded.getAllTasks().size());
+        assertEquals(1, loaded.getAllEpics().size());
+    }
+
+    @Test
+    void writeBehind_shouldFlushOnInterval() throws InterruptedException {
+        Path path = file();
+        FileBackedTaskManager manager = new FileBackedTaskManager(path, PersistenceMode.SNAPSHOT,
+                FlushPolicy.writeBehind(100, Duration.ofMillis(20), Durability.NONE));
+
+        manager.createTask(new Task("T1", "D1", Status.NEW));
+        for (int i = 0; i < 100 && !Files.exists(path); i++) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(Files.exists(path), "Фоновый поток сбрасывает изменения по таймеру");
+        manager.close();
+    }
+
+    // ---------- История ----------
+
+    @Test
+    void getById_shouldNotRewriteSnapshot_butHistoryIsRestored() throws Exception {
+        Path path = file();
+        FileBackedTaskManager manager = new FileBackedTaskManager(path);
+
+        Task t1 = manager.createTask(new Task("T1", "D1", Status.NEW));
+        Task t2 = manager.createTask(new Task("T2", "D2", Status.NEW));
+        byte[] before = Files.readAllBytes(path);
+
+        manager.getTaskById(t2.getId());
+        manager.getTaskById(t1.getId());
+
+        assertArrayEquals(before, Files.readAllBytes(path), "Просмотр не переписывает файл с задачами");
+        assertEquals(java.util.List.of(t2.getId(), t1.getId()),
+                FileBackedTaskManager.loadFromFile(path).getHistory().stream()
+                        .map(Task::getId)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    void history_shouldSkipViewsOfDeletedTasks() {
+        Path path = file();
+        FileBackedTaskManager manager = new FileBackedTaskManager(path, PersistenceMode.JOURNAL);
+
+        Task t1 = manager.createTask(new Task("T1", "D1", Status.NEW));
+        Task t2 = manager.createTask(new Task("T2", "D2", Status.NEW));
+        manager.getTaskById(t1.getId());
+        manager.getTaskById(t2.getId());
+        manager.deleteTaskById(t1.getId());
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(path, PersistenceMode.JOURNAL);
+        assertEquals(java.util.List.of(t2.getId()),
+                loaded.getHistory().stream().map(Task::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void loadFromFile_shouldRebuildStatusIndexes() {
+        Path path = file();
+        FileBackedTaskManager manager = new FileBackedTaskManager(path);
+        manager.createTask(new Task("T", "D", Status.IN_PROGRESS));
+        Epic epic = manager.createEpic(new Epic("E", "D"));
+        manager.createSubtask(new Subtask("S1", "D", Status.DONE, epic.getId()));
+        manager.createSubtask(new Subtask("S2", "D", Status.NEW, epic.getId()));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(path);
+
+        assertEquals(1, loaded.getTasksByStatus(Status.IN_PROGRESS).size());
+        assertEquals(1, loaded.countByStatus(Type.SUBTASK, Status.DONE));
+        assertEquals(1, loaded.countByStatus(Type.SUBTASK, Status.NEW));
+        assertEquals(List.of(epic.getId()), loaded.getEpicsByStatus(Status.IN_PROGRESS).stream()
+                .map(Epic::getId).collect(Collectors.toList()));
+    }
+}
@@ -5,13 +5,19 @@ import interfaces.HistoryManager;
 import model.Task;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class InMemoryHistoryManagerTest {
 
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).collect(Collectors.toList());
+    }
+
     @Test
     void history_shouldBeEmptyInitially() {
         HistoryManager history = new InMemoryHistoryManager();
@@ -79,4 +85,80 @@ class InMemoryHistoryManagerTest {
         history.remove(999);
         assertTrue(history.getHistory().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getHistoryLimit_shouldReturnMostRecentInViewOrder() {
+        HistoryManager history = new InMemoryHistoryManager();
+        for (int id = 1; id <= 5; id++) {
+            history.add(new Task(id, "T", "D", Status.NEW, 0, null));
+        }
+
+        assertEquals(List.of(4, 5), ids(history.getHistory(2)));
+        assertEquals(List.of(1, 2, 3, 4, 5), ids(history.getHistory(100)));
+        assertTrue(history.getHistory(0).isEmpty());
+    }
+
+    @Test
+    void lru_shouldEvictOldestViewOverMaxEntries() {
+        InMemoryHistoryManager history = new InMemoryHistoryManager(HistoryPolicy.lru(3, 0));
+        for (int id = 1; id <= 3; id++) {
+            history.add(new Task(id, "T", "D", Status.NEW, 0, null));
+        }
+        history.add(new Task(1, "T", "D", Status.NEW, 0, null)); // [2,3,1]
+        history.add(new Task(4, "T", "D", Status.NEW, 0, null)); // 2 вытесняется
+
+        assertEquals(List.of(3, 1, 4), ids(history.getHistory()));
+        assertEquals(3, history.size());
+    }
+
+    @Test
+    void lru_shouldEvictOverMaxBytes() {
+        Task task = new Task(1, "T", "D", Status.NEW, 0, null);
+        long entry = HistoryPolicy.estimateBytes(task);
+        InMemoryHistoryManager history = new InMemoryHistoryManager(HistoryPolicy.lru(0, entry * 2));
+
+        for (int id = 1; id <= 4; id++) {
+            history.add(new Task(id, "T", "D", Status.NEW, 0, null));
+        }
+        assertEquals(List.of(3, 4), ids(history.getHistory()));
+        assertEquals(entry * 2, history.getEstimatedBytes());
+
+        history.remove(3);
+        assertEquals(entry, history.getEstimatedBytes());
+    }
+
+    @Test
+    void timeWindow_shouldDropViewsOlderThanWindow() {
+        AtomicLong now = new AtomicLong(1_000);
+        InMemoryHistoryManager history = new InMemoryHistoryManager(
+                HistoryPolicy.timeWindow(Duration.ofSeconds(10), 0, 0), now::get);
+
+        history.add(new Task(1, "T", "D", Status.NEW, 0, null));
+        now.addAndGet(6_000);
+        history.add(new Task(2, "T", "D", Status.NEW, 0, null));
+        now.addAndGet(6_000);
+
+        assertEquals(List.of(1, 2), ids(history.getHistory()), "Чтение само ничего не вытесняет");
+        assertTrue(history.expire());
+        assertEquals(List.of(2), ids(history.getHistory()), "Просмотр 1 старше окна");
+        assertFalse(history.expire(), "Вытеснять больше нечего");
+        history.add(new Task(1, "T", "D", Status.NEW, 0, null)); // повторный просмотр освежает запись
+        now.addAndGet(6_000);
+        assertTrue(history.expire());
+        assertEquals(List.of(1), ids(history.getHistory(10)));
+    }
+
+    @Test
+    void timeWindow_expiryShouldBumpManagerHistoryVersion() {
+        AtomicLong now = new AtomicLong(1_000);
+        InMemoryTaskManager manager = new InMemoryTaskManager(new InMemoryHistoryManager(
+                HistoryPolicy.timeWindow(Duration.ofSeconds(10), 0, 0), now::get));
+        Task task = manager.createTask(new Task("T", "D", Status.NEW));
+        manager.getTaskById(task.getId());
+        long version = manager.getHistoryVersion();
+
+        now.addAndGet(11_000);
+        assertNotEquals(version, manager.getHistoryVersion(), "Иначе ETag /history отдаст устаревший 304");
+        assertTrue(manager.getHistory().isEmpty());
+    }
+}
@@ -130,4 +130,75 @@ class EpicTest {
         assertNull(loaded.getStartTime(), "Если у всех подзадач startTime == null, startTime эпика должен быть null");
         assertNull(loaded.getEndTime(), "Если у всех подзадач startTime == null, endTime эпика должен быть null");
     }
-}
\ No newline at end of file
+
+    @Test
+    void epicFields_shouldFollowSubtaskUpdatesAndDeletes() {
+        TaskManager manager = createManager();
+        Epic epic = manager.createEpic(new Epic("E", "D"));
+
+        Subtask s1 = manager.createSubtask(new Subtask("S1", "D", Status.NEW, epic.getId(), 30,
+                LocalDateTime.of(2025, 1, 10, 9, 0)));
+        Subtask s2 = manager.createSubtask(new Subtask("S2", "D", Status.NEW, epic.getId(), 15,
+                LocalDateTime.of(2025, 1, 10, 11, 0)));
+
+        // тот же объект, изменённый снаружи, — прежний вклад всё равно снимается корректно
+        s1.setStatus(Status.DONE);
+        s1.setStartTime(LocalDateTime.of(2025, 1, 10, 8, 0));
+        manager.updateSubtask(s1);
+
+        Epic loaded = manager.getEpicById(epic.getId());
+        assertEquals(Status.IN_PROGRESS, loaded.getStatus());
+        assertEquals(LocalDateTime.of(2025, 1, 10, 8, 0), loaded.getStartTime());
+        assertEquals(45, loaded.getDuration());
+
+        manager.deleteSubtaskById(s2.getId());
+        loaded = manager.getEpicById(epic.getId());
+        assertEquals(Status.DONE, loaded.getStatus());
+        assertEquals(30, loaded.getDuration());
+        assertEquals(LocalDateTime.of(2025, 1, 10, 8, 30), loaded.getEndTime());
+    }
+
+    @Test
+    void epicTimeFields_shouldReset_whenAllSubtasksDeleted() {
+        TaskManager manager = createManager();
+        Epic epic = manager.createEpic(new Epic("E", "D"));
+        manager.createSubtask(new Subtask("S1", "D", Status.DONE, epic.getId(), 30,
+                LocalDateTime.of(2025, 1, 10, 9, 0)));
+
+        manager.deleteAllSubtasks();
+
+        Epic loaded = manager.getEpicById(epic.getId());
+        assertEquals(Status.NEW, loaded.getStatus());
+        assertEquals(0, loaded.getDuration());
+        assertNull(loaded.getStartTime());
+        assertNull(loaded.getEndTime());
+    }
+
+    @Test
+    void aggregateRebuild_shouldMatchIncrementalPuts() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 10, 9, 0);
+        java.util.List<Subtask> subs = java.util.List.of(
+                new Subtask(1, "S1", "D", Status.DONE, 10, 30, base.plusHours(2)),
+                new Subtask(2, "S2", "D", Status.NEW, 10, 15, base),
+                new Subtask(3, "S3", "D", Status.NEW, 10, 15, base),
+                new Subtask(4, "S4", "D", Status.DONE, 10, 0, null));
+
+        EpicAggregate incremental = new EpicAggregate();
+        subs.forEach(incremental::put);
+        EpicAggregate rebuilt = new EpicAggregate();
+        rebuilt.rebuild(subs);
+
+        assertEquals(incremental.getStatus(), rebuilt.getStatus());
+        assertEquals(incremental.getTotalDuration(), rebuilt.getTotalDuration());
+        assertEquals(base, rebuilt.getEarliestStart());
+        assertEquals(base.plusHours(2).plusMinutes(30), rebuilt.getLatestEnd());
+
+        // одинаковое начало у двух подзадач учтено дважды: после удаления одной оно остаётся
+        rebuilt.remove(2);
+        assertEquals(base, rebuilt.getEarliestStart());
+        rebuilt.remove(3);
+        rebuilt.remove(1);
+        assertNull(rebuilt.getEarliestStart());
+        assertEquals(Status.DONE, rebuilt.getStatus());
+    }
+}
@@ -0,0 +1,81 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntLinkedHashSetTest {
+
+    @Test
+    void add_shouldKeepInsertionOrderAndIgnoreDuplicates() {
+        IntLinkedHashSet set = new IntLinkedHashSet();
+        assertTrue(set.add(5));
+        assertTrue(set.add(0));
+        assertTrue(set.add(-3));
+        assertFalse(set.add(5));
+
+        assertEquals(3, set.size());
+        assertArrayEquals(new int[]{5, 0, -3}, set.toArray());
+    }
+
+    @Test
+    void remove_shouldUnlinkFromBeginningMiddleEnd() {
+        IntLinkedHashSet set = new IntLinkedHashSet();
+        for (int i = 1; i <= 5; i++) {
+            set.add(i);
+        }
+
+        assertTrue(set.remove(1));
+        assertTrue(set.remove(3));
+        assertTrue(set.remove(5));
+        assertFalse(set.remove(42));
+
+        assertArrayEquals(new int[]{2, 4}, set.toArray());
+        assertFalse(set.contains(3));
+
+        set.add(3); // ячейка переиспользуется, но порядок — по вставке
+        assertArrayEquals(new int[]{2, 4, 3}, set.toArray());
+    }
+
+    @Test
+    void cursor_shouldWalkAllValues() {
+        IntLinkedHashSet set = new IntLinkedHashSet();
+        set.add(10);
+        set.add(20);
+
+        List<Integer> seen = new ArrayList<>();
+        for (int c = set.first(); c != IntLinkedHashSet.NONE; c = set.next(c)) {
+            seen.add(set.valueAt(c));
+        }
+        assertEquals(List.of(10, 20), seen);
+    }
+
+    @Test
+    void randomOperations_shouldMatchLinkedHashSet() {
+        Random random = new Random(42);
+        IntLinkedHashSet set = new IntLinkedHashSet();
+        Set<Integer> expected = new LinkedHashSet<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            int value = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), set.toArray());
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertEquals(IntLinkedHashSet.NONE, set.first());
+    }
+}
@@ -0,0 +1,80 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectHashMapTest {
+
+    @Test
+    void put_shouldReplaceValueInPlace() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        assertNull(map.put(1, "a"));
+        map.put(2, "b");
+        assertEquals("a", map.put(1, "c"));
+
+        assertEquals(2, map.size());
+        assertEquals(List.of("c", "b"), map.values(), "Замена не меняет порядок обхода");
+    }
+
+    @Test
+    void get_shouldReturnNullForMissingKey() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        map.put(0, "zero");
+
+        assertEquals("zero", map.get(0));
+        assertNull(map.get(7));
+        assertNull(map.remove(7));
+        assertThrows(NullPointerException.class, () -> map.put(3, null));
+    }
+
+    @Test
+    void valuesAfter_shouldReturnPageByKeyCursor() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        for (int key = 1; key <= 10; key++) {
+            map.put(key, "v" + key);
+        }
+        map.remove(4);
+        map.remove(5);
+
+        assertEquals(List.of("v1", "v2", "v3"), map.valuesAfter(0, 3));
+        assertEquals(List.of("v6", "v7"), map.valuesAfter(3, 2), "Удалённые ключи пропускаются");
+        assertEquals(List.of("v6"), map.valuesAfter(4, 1), "Курсор может указывать на удалённый ключ");
+        assertTrue(map.valuesAfter(10, 5).isEmpty());
+
+        map.put(4, "again"); // вставка не по возрастанию
+        assertEquals(List.of("again", "v6"), map.valuesAfter(3, 2));
+    }
+
+    @Test
+    void randomOperations_shouldMatchLinkedHashMap() {
+        Random random = new Random(7);
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>();
+        Map<Integer, Integer> expected = new LinkedHashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(5_000);
+            if (random.nextInt(2) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        for (Map.Entry<Integer, Integer> e : expected.entrySet()) {
+            assertEquals(e.getValue(), map.get(e.getKey()));
+        }
+        assertEquals(new ArrayList<>(expected.values()), map.values());
+
+        List<Integer> keys = new ArrayList<>();
+        map.forEachKey(keys::add);
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+    }
+}
@@ -0,0 +1,74 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTest {
+
+    @Test
+    void findOverlap_shouldUseHalfOpenIntervalsAndSkipExcludedId() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(10, 20, 1, "a");
+        tree.insert(30, 40, 2, "b");
+
+        assertNull(tree.findOverlap(20, 30, 0), "Касание границ — не пересечение");
+        assertEquals("a", tree.findOverlap(15, 16, 0));
+        assertNull(tree.findOverlap(15, 16, 1));
+        assertEquals("b", tree.findOverlap(0, 100, 1));
+    }
+
+    @Test
+    void remove_shouldWorkByIdOnly() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(10, 20, 1, "a");
+        tree.insert(10, 20, 1, "a2"); // замена по id
+
+        assertEquals(1, tree.size());
+        assertTrue(tree.remove(1));
+        assertFalse(tree.remove(1));
+        assertNull(tree.findOverlap(0, 100, 0));
+    }
+
+    @Test
+    void randomOperations_shouldMatchBruteForce() {
+        Random random = new Random(3);
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        Map<Integer, long[]> expected = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            int id = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id) != null, tree.remove(id));
+            } else {
+                long start = random.nextInt(10_000);
+                long end = start + random.nextInt(200);
+                tree.insert(start, end, id, id);
+                expected.put(id, new long[]{start, end});
+            }
+
+            long from = random.nextInt(10_000);
+            long to = from + random.nextInt(300) + 1;
+            List<Integer> actual = new ArrayList<>();
+            tree.collectOverlapping(from, to, actual);
+
+            List<Integer> brute = expected.entrySet().stream()
+                    .filter(e -> e.getValue()[0] < to && from < e.getValue()[1])
+                    .sorted((a, b) -> a.getValue()[0] != b.getValue()[0]
+                            ? Long.compare(a.getValue()[0], b.getValue()[0])
+                            : Integer.compare(a.getKey(), b.getKey()))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            assertEquals(brute, actual);
+            assertEquals(brute.isEmpty(), tree.findOverlap(from, to, -1) == null);
+        }
+        assertEquals(expected.size(), tree.size());
+    }
+}